@@ -0,0 +1,22 @@
+uniform sampler2DArray m_ColorMap;
+uniform vec3 m_SunDirection;
+uniform vec4 m_SunColor;
+uniform vec4 m_AmbientColor;
+uniform float m_AlphaDiscardThreshold;
+
+in vec3 texCoord;
+in vec3 worldNormal;
+
+out vec4 outFragColor;
+
+void main() {
+    vec4 color = texture(m_ColorMap, texCoord);
+    if (color.a < m_AlphaDiscardThreshold) {
+        discard;
+    }
+    #ifdef USE_LIGHTING
+        float diffuse = max(dot(normalize(worldNormal), -normalize(m_SunDirection)), 0.0);
+        color.rgb *= m_AmbientColor.rgb + m_SunColor.rgb * diffuse;
+    #endif
+    outFragColor = vec4(color.rgb, 1.0);
+}
@@ -0,0 +1,16 @@
+uniform mat4 g_WorldViewProjectionMatrix;
+uniform mat4 g_WorldMatrix;
+
+in vec3 inPosition;
+in vec3 inNormal;
+// (u, v, camada do texture array)
+in vec3 inTexCoord;
+
+out vec3 texCoord;
+out vec3 worldNormal;
+
+void main() {
+    texCoord = inTexCoord;
+    worldNormal = normalize(mat3(g_WorldMatrix) * inNormal);
+    gl_Position = g_WorldViewProjectionMatrix * vec4(inPosition, 1.0);
+}
@@ -0,0 +1,370 @@
+package jogo;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.system.JmeSystem;
+import jogo.appstate.AIAppState;
+import jogo.crafting.CraftingService;
+import jogo.crafting.RecipeBook;
+import jogo.engine.GameRegistry;
+import jogo.engine.HierarchicalPathfinder;
+import jogo.engine.SimulationClock;
+import jogo.framework.math.Vec3;
+import jogo.gameobject.StackingInventory;
+import jogo.gameobject.character.Enemy;
+import jogo.gameobject.character.Player;
+import jogo.persistence.SaveData;
+import jogo.persistence.SaveException;
+import jogo.persistence.SaveService;
+import jogo.voxel.VoxelPalette;
+import jogo.voxel.VoxelWorld;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Entrada sem janela nem render, para medir a simulação em máquinas sem GPU
+ * (ex.: CI). Constrói o mundo, o registo, a IA, o crafting e a persistência e
+ * corre um cenário fixo com o {@link SimulationClock} a dar ticks seguidos:
+ * N inimigos, o jogador a percorrer um quadrado e M edições de blocos por
+ * segundo. No fim imprime os percentis do tempo por tick e a taxa de alocação.
+ * <p>
+ * Argumentos (opcionais): {@code --enemies=200 --edits=20 --seconds=60
+ * --warmup=5 --hz=30 --max-agents=1024 --autosave=10 --seed=1234 --sequential}
+ */
+public final class HeadlessSimulation {
+    private static final int WORLD_SIZE = 320;
+    private static final int WORLD_HEIGHT = 32;
+    private static final int CENTER = WORLD_SIZE / 2;
+
+    // Percurso do jogador: quadrado em torno do centro, a passo de caminhada
+    private static final int PATH_HALF = 32;
+    private static final float WALK_SPEED = 4.3f;
+    private static final float EYE_HEIGHT = 1.7f;
+    // Inimigos espalhados até este raio; as edições caem até EDIT_RADIUS do jogador
+    private static final int SPAWN_RADIUS = 120;
+    private static final int EDIT_RADIUS = 32;
+    // Inimigos parados a quem se dá um destino distante por segundo (caminhos longos)
+    private static final int NAVIGATIONS_PER_SECOND = 4;
+    // Em saves/, ignorado pelo git
+    private static final String SAVE_FILE = "headless.sav";
+    private static final int WOOD = 200, PLANKS = 210, STICK = 220;
+
+    // Cenário
+    private int enemyCount = 200;
+    private float editsPerSecond = 20f;
+    private float seconds = 60f;
+    private float warmupSeconds = 5f;
+    private float hz = SimulationClock.DEFAULT_HZ;
+    private int maxAgentsPerTick = AIAppState.DEFAULT_MAX_AGENTS_PER_TICK;
+    private float autosaveSeconds = 10f;
+    private long seed = 1234L;
+    private boolean parallel = true;
+
+    private VoxelWorld world;
+    private GameRegistry registry;
+    private AIAppState ai;
+    private SimulationClock clock;
+    private Player player;
+    private Random rng;
+    private final List<Enemy> enemies = new ArrayList<>();
+
+    private float px, pz;
+    private int waypoint;
+    private float editBudget;
+    private int ticksPerSecond, autosaveTicks;
+    private long aiNanos, meshNanos;
+    private int edits, crafts, saves;
+
+    public static void main(String[] args) {
+        HeadlessSimulation sim = new HeadlessSimulation();
+        sim.parseArgs(args);
+        sim.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--sequential")) {
+                parallel = false;
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0)
+                throw new IllegalArgumentException("Argumento inválido: " + arg);
+            String key = arg.substring(2, eq), value = arg.substring(eq + 1);
+            switch (key) {
+                case "enemies" -> enemyCount = Integer.parseInt(value);
+                case "edits" -> editsPerSecond = Float.parseFloat(value);
+                case "seconds" -> seconds = Float.parseFloat(value);
+                case "warmup" -> warmupSeconds = Float.parseFloat(value);
+                case "hz" -> hz = Float.parseFloat(value);
+                case "max-agents" -> maxAgentsPerTick = Integer.parseInt(value);
+                case "autosave" -> autosaveSeconds = Float.parseFloat(value);
+                case "seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+    }
+
+    private void run() {
+        setup();
+        int warmupTicks = Math.round(warmupSeconds * hz);
+        int measuredTicks = Math.max(1, Math.round(seconds * hz));
+        for (int i = 0; i < warmupTicks; i++)
+            clock.step();
+
+        // Medição: só o tempo de cada tick, com os ticks seguidos (sem esperar pelo relógio real)
+        long[] tickNanos = new long[measuredTicks];
+        aiNanos = meshNanos = 0;
+        edits = crafts = saves = 0;
+        long allocStart = allocatedBytes();
+        long[] gcStart = gcStats();
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < measuredTicks; i++) {
+            long t0 = System.nanoTime();
+            clock.step();
+            tickNanos[i] = System.nanoTime() - t0;
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+        long allocated = allocStart >= 0 ? allocatedBytes() - allocStart : -1;
+        long[] gcEnd = gcStats();
+
+        report(tickNanos, wallNanos, allocated, gcEnd[0] - gcStart[0], gcEnd[1] - gcStart[1]);
+        checkSave();
+        ai.dispose();
+        world.shutdown();
+    }
+
+    private void setup() {
+        long start = System.nanoTime();
+        rng = new Random(seed);
+        AssetManager assetManager = JmeSystem.newAssetManager(
+                Thread.currentThread().getContextClassLoader().getResource("com/jme3/asset/Desktop.cfg"));
+        assetManager.registerLocator("src/main/java/assets", com.jme3.asset.plugins.FileLocator.class);
+
+        world = new VoxelWorld(assetManager, WORLD_SIZE, WORLD_HEIGHT, WORLD_SIZE);
+        world.generateLayers();
+        // Sem Application as malhas das edições são feitas nesta thread, como custo do tick
+        world.buildMeshes();
+        world.clearAllDirtyFlags();
+
+        registry = new GameRegistry();
+        ai = new AIAppState(world, registry);
+        ai.setParallel(parallel);
+        ai.setMaxAgentsPerTick(maxAgentsPerTick);
+
+        player = new Player();
+        px = CENTER - PATH_HALF;
+        pz = CENTER - PATH_HALF;
+        player.setPosition(px, standY(px, pz), pz);
+        for (int i = 0; i < enemyCount; i++) {
+            double angle = rng.nextDouble() * Math.PI * 2;
+            float r = 4f + rng.nextFloat() * (SPAWN_RADIUS - 4f);
+            float x = clamp(CENTER + (float) Math.cos(angle) * r);
+            float z = clamp(CENTER + (float) Math.sin(angle) * r);
+            Enemy enemy = new Enemy("Zombie", 10, 0);
+            enemy.setPosition(x, standY(x, z), z);
+            registry.add(enemy);
+            enemies.add(enemy);
+        }
+
+        clock = new SimulationClock(hz);
+        ticksPerSecond = Math.max(1, Math.round(hz));
+        autosaveTicks = autosaveSeconds > 0f ? Math.max(1, Math.round(autosaveSeconds * hz)) : 0;
+        clock.addListener(this::tick);
+        System.out.println("Headless pronto em " + ms(System.nanoTime() - start) + " ms");
+    }
+
+    /** Um tick do cenário: jogador, edições, IA, malhas e, de tempos a tempos, crafting e save. */
+    private void tick(float dt) {
+        long tick = clock.getTick();
+        movePlayer(dt);
+        editBudget += editsPerSecond * dt;
+        while (editBudget >= 1f) {
+            editBudget -= 1f;
+            editBlock();
+        }
+
+        long t0 = System.nanoTime();
+        Vec3 eye = new Vec3(px, player.getPosition().y + EYE_HEIGHT, pz);
+        ai.simulate(dt, eye, WALK_SPEED, player);
+        long t1 = System.nanoTime();
+        world.rebuildDirtyChunks(null);
+        aiNanos += t1 - t0;
+        meshNanos += System.nanoTime() - t1;
+
+        if (tick % ticksPerSecond == 0) {
+            giveDestinations();
+            craft();
+            // Manter o jogador vivo para os inimigos continuarem a atacar
+            player.setHealth(player.getMaxHealth());
+        }
+        if (autosaveTicks > 0 && tick % autosaveTicks == 0)
+            save();
+    }
+
+    // Avança o jogador ao longo do quadrado, sempre em cima do terreno
+    private void movePlayer(float dt) {
+        float step = WALK_SPEED * dt;
+        while (step > 0f) {
+            int corner = waypoint & 3;
+            float tx = CENTER + (corner == 1 || corner == 2 ? PATH_HALF : -PATH_HALF);
+            float tz = CENTER + (corner >= 2 ? PATH_HALF : -PATH_HALF);
+            float dx = tx - px, dz = tz - pz;
+            float dist = (float) Math.sqrt(dx * dx + dz * dz);
+            if (dist <= step) {
+                px = tx;
+                pz = tz;
+                step -= dist;
+                waypoint++;
+            } else {
+                px += dx / dist * step;
+                pz += dz / dist * step;
+                step = 0f;
+            }
+        }
+        player.setPosition(px, standY(px, pz), pz);
+    }
+
+    // Põe ou parte um bloco no topo de uma coluna perto do jogador
+    private void editBlock() {
+        int x = (int) clamp(px + rng.nextInt(2 * EDIT_RADIUS + 1) - EDIT_RADIUS);
+        int z = (int) clamp(pz + rng.nextInt(2 * EDIT_RADIUS + 1) - EDIT_RADIUS);
+        int top = world.getTopSolidY(x, z);
+        if (rng.nextBoolean() && top + 1 < WORLD_HEIGHT - 1)
+            world.setBlock(x, top + 1, z, VoxelPalette.STONE_ID);
+        else if (top > 1)
+            world.setBlock(x, top, z, VoxelPalette.AIR_ID);
+        edits++;
+    }
+
+    // Destinos distantes para alguns inimigos parados (pedidos ao pathfinder hierárquico)
+    private void giveDestinations() {
+        if (enemies.isEmpty())
+            return;
+        for (int i = 0; i < NAVIGATIONS_PER_SECOND; i++) {
+            Enemy enemy = enemies.get(rng.nextInt(enemies.size()));
+            if (enemy.hasNavigationTarget())
+                continue;
+            float x = clamp(CENTER + rng.nextInt(2 * SPAWN_RADIUS + 1) - SPAWN_RADIUS);
+            float z = clamp(CENTER + rng.nextInt(2 * SPAWN_RADIUS + 1) - SPAWN_RADIUS);
+            enemy.navigateTo(x, z);
+        }
+    }
+
+    // Apanha madeira e faz tábuas e paus; os paus são gastos para o inventário não encher
+    private void craft() {
+        StackingInventory inv = player.getInventory();
+        if (inv.hasSpaceFor(WOOD, 2))
+            inv.add(WOOD, 2);
+        if (CraftingService.craft(inv, RecipeBook.get(0)))
+            crafts++;
+        if (CraftingService.craft(inv, RecipeBook.get(2)))
+            crafts++;
+        int sticks = inv.getCount(STICK);
+        if (sticks >= 32)
+            inv.remove(STICK, sticks);
+    }
+
+    private void save() {
+        try {
+            Vec3 p = player.getPosition();
+            SaveService.save(p.x, p.y, p.z, player, seed, SAVE_FILE);
+            saves++;
+        } catch (SaveException e) {
+            System.out.println("Headless: falha ao guardar: " + e.getMessage());
+        }
+    }
+
+    // Guarda e volta a carregar no fim, para confirmar que o estado sobrevive à ida e volta
+    private void checkSave() {
+        long start = System.nanoTime();
+        save();
+        try {
+            SaveData data = SaveService.load(SAVE_FILE);
+            System.out.println("Save: ida e volta em " + ms(System.nanoTime() - start) + " ms, tábuas "
+                    + data.getInventory().getOrDefault(PLANKS, 0) + " (esperadas "
+                    + player.getInventory().getCount(PLANKS) + ")");
+        } catch (SaveException e) {
+            System.out.println("Headless: falha ao carregar: " + e.getMessage());
+        }
+    }
+
+    private void report(long[] tickNanos, long wallNanos, long allocated, long gcCount, long gcMillis) {
+        int n = tickNanos.length;
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long t : sorted)
+            total += t;
+        float simSeconds = n / hz;
+        HierarchicalPathfinder paths = ai.getPathfinder();
+
+        System.out.println(String.format(Locale.ROOT,
+                "Headless: %d inimigos, %.0f edições/s, %.0f Hz, IA %s, %d ticks (%.1f s simulados) em %.2f s",
+                enemyCount, editsPerSecond, hz, parallel ? "paralela" : "sequencial", n, simSeconds,
+                wallNanos / 1e9));
+        System.out.println(String.format(Locale.ROOT,
+                "Tick (ms): média %.3f  p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  máx %.3f  (passo %.1f)",
+                total / 1e6 / n, pct(sorted, 50), pct(sorted, 90), pct(sorted, 99), pct(sorted, 99.9),
+                sorted[n - 1] / 1e6, 1000f / hz));
+        System.out.println(String.format(Locale.ROOT,
+                "Por tick (ms): IA %.3f, malhas %.3f; IA no último tick: %d decididos, %d adiados",
+                aiNanos / 1e6 / n, meshNanos / 1e6 / n, ai.getLastDecidedCount(), ai.getLastDeferredCount()));
+        if (allocated >= 0)
+            System.out.println(String.format(Locale.ROOT,
+                    "Alocação: %.2f MB/s simulado, %.2f MB/s real, %.1f KB/tick (todas as threads)",
+                    allocated / 1e6 / simSeconds, allocated / 1e6 / (wallNanos / 1e9), allocated / 1024.0 / n));
+        else
+            System.out.println("Alocação: não suportada por esta JVM");
+        System.out.println("GC: " + gcCount + " recolhas, " + gcMillis + " ms");
+        System.out.println("Cenário: " + edits + " edições, " + crafts + " crafts, " + saves + " saves, "
+                + (paths != null ? paths.getRebuildCount() + " clusters reconstruídos" : "sem pathfinder"));
+    }
+
+    // Percentil por rank mais próximo, em ms
+    private static double pct(long[] sorted, double p) {
+        int i = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e6;
+    }
+
+    // Bytes alocados até agora por todas as threads vivas (-1 se a JVM não o suportar)
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean sun) || !sun.isThreadAllocatedMemorySupported())
+            return -1;
+        sun.setThreadAllocatedMemoryEnabled(true);
+        long total = 0;
+        for (long bytes : sun.getThreadAllocatedBytes(threads.getAllThreadIds()))
+            if (bytes > 0)
+                total += bytes;
+        return total;
+    }
+
+    // Recolhas e tempo (ms) de GC acumulados
+    private static long[] gcStats() {
+        long count = 0, time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] { count, time };
+    }
+
+    private float standY(float x, float z) {
+        return world.getTopSolidY((int) Math.floor(x), (int) Math.floor(z)) + 1f;
+    }
+
+    private static float clamp(float v) {
+        return Math.max(0f, Math.min(WORLD_SIZE - 1f, v));
+    }
+
+    private static String ms(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+}
@@ -15,10 +15,12 @@ import jogo.appstate.InteractionAppState;
 import jogo.appstate.AIAppState;
 import jogo.appstate.CraftingAppState;
 import jogo.appstate.PersistenceAppState;
+import jogo.appstate.SimulationAppState;
 import jogo.engine.GameRegistry;
 import jogo.gameobject.Wood;
 import jogo.gameobject.item.BreakableItem;
 import jogo.engine.RenderIndex;
+import jogo.engine.SimulationClock;
 import jogo.gameobject.character.Enemy;
 import jogo.gameobject.character.Ally;
 
@@ -70,19 +72,22 @@ public class Jogo extends SimpleApplication {
         WorldAppState world = new WorldAppState(rootNode, assetManager, physicsSpace, cam, input, registry);
         stateManager.attach(world);
 
+        // Simulação a passo fixo (IA); antes do render para que este interpole os ticks do mesmo frame
+        SimulationClock clock = new SimulationClock(SimulationClock.DEFAULT_HZ);
+        stateManager.attach(new SimulationAppState(clock));
+
         // Camadas de renderização do motor
         RenderIndex renderIndex = new RenderIndex();
-        stateManager.attach(new RenderAppState(rootNode, assetManager, registry, renderIndex, world));
+        stateManager.attach(new RenderAppState(rootNode, assetManager, registry, renderIndex, clock));
 
         // Objetos de demonstração movidos para baixo após anexar jogador
 
         PlayerAppState player = new PlayerAppState(rootNode, assetManager, cam, input, physicsSpace, world);
         stateManager.attach(player);
-        InteractionAppState interaction = new InteractionAppState(rootNode, cam, input, renderIndex, world, registry,
-                player);
+        InteractionAppState interaction = new InteractionAppState(rootNode, cam, input, world, registry, player);
         stateManager.attach(interaction);
 
-        AIAppState ai = new AIAppState(player, world, registry);
+        AIAppState ai = new AIAppState(player, world, registry, clock);
         stateManager.attach(ai);
 
         // Colocar itens de demonstração APÓS anexar jogador usando uma referência de
@@ -3,50 +3,394 @@ package jogo.appstate;
 import com.jme3.app.Application;
 import com.jme3.app.state.BaseAppState;
 import com.jme3.math.Vector3f;
+import jogo.engine.FlowField;
 import jogo.engine.GameRegistry;
+import jogo.engine.HierarchicalPathfinder;
+import jogo.engine.SimulationClock;
 import jogo.framework.math.Vec3;
 import jogo.gameobject.GameObject;
+import jogo.gameobject.character.Character;
 import jogo.gameobject.capability.AIContext;
+import jogo.gameobject.capability.AIIntent;
 import jogo.gameobject.capability.HasAI;
+import jogo.voxel.VoxelWorld;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * Ciclo de IA: constrói contexto por frame e invoca updateAI(ctx)
- * nos objetos registados com capacidades de IA.
+ * Ciclo de IA: constrói contexto por tick e corre a IA dos objetos registados
+ * em duas fases. Na decisão cada agente lê o contexto (posições do tick) e
+ * escreve uma {@link AIIntent}; no commit as intenções são aplicadas pela ordem
+ * de decisão. Como ninguém se move durante a decisão, esta pode correr em
+ * paralelo no pool fork-join e o resultado é idêntico ao modo sequencial.
+ * <p>
+ * Nível de detalhe: os agentes perto do jogador decidem todos os ticks, os
+ * intermédios de 4 em 4 e os distantes de 16 em 16, recebendo o tempo
+ * acumulado desde a última decisão. Além dos próximos, que decidem sempre,
+ * cada tick decide no máximo {@link #getMaxAgentsPerTick()} agentes; os que
+ * não couberem ficam para o seguinte. O orçamento conta agentes e não tempo,
+ * para que quem decide em cada tick não dependa da velocidade da máquina nem
+ * do modo paralelo: o mesmo estado inicial dá sempre os mesmos ticks.
+ * <p>
+ * Os pedidos de caminho feitos na decisão seguem para o pathfinder no fim do
+ * tick e os resultados só aparecem no início de um tick seguinte, por isso
+ * também não dependem do modo paralelo nem da velocidade das threads.
+ * <p>
+ * Os agentes ficam assentes no bloco sólido mais alto da sua coluna: ao entrar,
+ * depois de cada commit e quando o chão debaixo deles muda. Assim a simulação
+ * (com ou sem render) vê sempre as mesmas alturas.
+ * <p>
+ * Com um {@link SimulationClock} a IA corre nos ticks de passo fixo do relógio
+ * (o custo não cresce com o FPS e os cooldowns não dependem dele); sem relógio
+ * corre uma vez por frame com o tpf do render.
  */
-public class AIAppState extends BaseAppState {
+public class AIAppState extends BaseAppState implements SimulationClock.Listener {
+    // Abaixo disto a decisão corre na thread de render (o paralelismo não compensa)
+    private static final int PARALLEL_THRESHOLD = 64;
+    // Agentes por tarefa fork-join
+    private static final int AGENTS_PER_TASK = 32;
+    /** Orçamento por omissão: agentes decididos por tick (os próximos não contam para o limite). */
+    public static final int DEFAULT_MAX_AGENTS_PER_TICK = 1024;
+
+    // Distâncias XZ ao jogador que separam os níveis de detalhe, e o intervalo (em ticks) de cada um
+    private static final float NEAR_DISTANCE = 24f;
+    private static final float MID_DISTANCE = 64f;
+    private static final int MID_INTERVAL = 4;
+    private static final int FAR_INTERVAL = 16;
+
     private final PlayerAppState playerAppState;
     private final WorldAppState gameWorldAppState;
+    private final VoxelWorld voxelWorld; // mundo dado diretamente (sem WorldAppState)
     private final GameRegistry registry;
+    private final SimulationClock clock;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private boolean parallel = true;
+    private int maxAgentsPerTick = DEFAULT_MAX_AGENTS_PER_TICK; // <= 0: sem limite
+    private FlowField flowField;
+    private HierarchicalPathfinder pathfinder;
+    // Mundo onde os agentes estão assentes, ouvido para as mudanças de superfície
+    private VoxelWorld groundWorld;
+    private final VoxelWorld.SurfaceListener surfaceListener = this::surfaceChanged;
+    private final List<GameObject> nearby = new ArrayList<>();
+
+    // Estado de agendamento por agente, alinhado com registry.getAIObjects()
+    private final Map<HasAI, Slot> slotOf = new IdentityHashMap<>();
+    private Slot[] slots = new Slot[0];
+    private long slotsVersion = -1;
+    private int nextPhase;
+    // Agentes a decidir neste tick, por ordem de prioridade
+    private Slot[] due = new Slot[0];
+    private int nearCount; // os primeiros nearCount de due são os agentes próximos
+    private long ticks;
+    private int lastDecided, lastDeferred;
+
+    // Estado de um agente no agendador
+    private static final class Slot {
+        final HasAI agent;
+        final AIIntent intent = new AIIntent();
+        final int phase; // desfasamento para espalhar os agentes lentos pelos ticks
+        float pendingTpf; // tempo acumulado desde a última decisão
+        float distance2; // distância XZ² ao jogador neste tick
+        boolean waiting; // ficou fora do orçamento num tick anterior
+        AIContext ctx;
 
-    /** Construtor com player, mundo e registo de objetos. */
+        Slot(HasAI agent, int phase) {
+            this.agent = agent;
+            this.phase = phase;
+        }
+    }
+
+    /** Construtor com player, mundo e registo de objetos; a IA corre uma vez por frame. */
     public AIAppState(PlayerAppState playerAppState, WorldAppState gameWorldAppState, GameRegistry registry) {
+        this(playerAppState, gameWorldAppState, registry, null);
+    }
+
+    /** Como o anterior, com a IA a correr nos ticks do relógio de simulação. */
+    public AIAppState(PlayerAppState playerAppState, WorldAppState gameWorldAppState, GameRegistry registry,
+            SimulationClock clock) {
         this.playerAppState = playerAppState;
         this.gameWorldAppState = gameWorldAppState;
+        this.voxelWorld = null;
         this.registry = registry;
+        this.clock = clock;
+    }
+
+    /**
+     * Sem Application nem jogador (simulação headless): não é anexado ao
+     * AppStateManager e os ticks são dados por {@link #simulate}.
+     */
+    public AIAppState(VoxelWorld voxelWorld, GameRegistry registry) {
+        this.playerAppState = null;
+        this.gameWorldAppState = null;
+        this.voxelWorld = voxelWorld;
+        this.registry = registry;
+        this.clock = null;
     }
 
     @Override
     protected void initialize(Application app) {
+        if (clock != null)
+            clock.addListener(this);
     }
 
     @Override
-    /** Atualização por frame: cria AIContext e entrega ao HasAI.updateAI. */
     public void update(float tpf) {
+        if (clock == null)
+            tick(tpf);
+    }
+
+    /** Um passo de IA: escolhe os agentes a decidir, recolhe as decisões e aplica-as. */
+    @Override
+    public void tick(float tpf) {
+        if (!isEnabled())
+            return;
         // Posição do jogador via câmara (lado engine) convertida para Vec3 (lado jogo)
         Vector3f camLoc = getApplication().getCamera().getLocation();
         Vec3 playerPos = new Vec3(camLoc.x, camLoc.y, camLoc.z);
         double baseSpeed = playerAppState != null ? playerAppState.getMoveSpeed() : 8.0;
-        AIContext ctx = new AIContext(playerPos, baseSpeed, tpf, playerAppState.getPlayer(), registry.getAll());
+        simulate(tpf, playerPos, baseSpeed, playerAppState != null ? playerAppState.getPlayer() : null);
+    }
 
-        for (GameObject obj : registry.getAll()) {
-            if (obj instanceof HasAI ai) {
-                ai.updateAI(ctx);
+    /**
+     * O passo de IA propriamente dito, com o jogador dado pelo chamador em vez
+     * de lido da câmara e do PlayerAppState.
+     */
+    public void simulate(float tpf, Vec3 playerPos, double baseSpeed, Character playerRef) {
+        ticks++;
+        // Flow field partilhado até ao jogador, só recalculado quando ele muda de coluna ou o terreno muda
+        VoxelWorld vw = voxelWorld != null ? voxelWorld
+                : gameWorldAppState != null ? gameWorldAppState.getVoxelWorld() : null;
+        if (flowField == null && vw != null) {
+            flowField = new FlowField(vw);
+            pathfinder = new HierarchicalPathfinder(vw);
+            groundWorld = vw;
+            vw.addSurfaceListener(surfaceListener);
+        }
+        if (flowField != null) {
+            flowField.update(playerPos.x, playerPos.z);
+            // Caminhos longos: publica os pedidos e grafos do tick anterior e copia os clusters mudados
+            pathfinder.update();
+        }
+        AIContext ctx = new AIContext(playerPos, baseSpeed, tpf, playerRef,
+                registry.getSpatialIndex(), flowField, pathfinder);
+
+        refreshSlots();
+        int dueCount = schedule(ctx, tpf);
+
+        // Fase 1: decisão até ao orçamento de agentes; os próximos vêm primeiro e fazem-se sempre
+        int decided = maxAgentsPerTick > 0 ? Math.max(nearCount, Math.min(dueCount, maxAgentsPerTick)) : dueCount;
+        if (parallel && decided >= PARALLEL_THRESHOLD)
+            pool.invoke(new DecideTask(due, 0, decided));
+        else
+            decide(due, 0, decided);
+
+        // Fase 2: commit pela ordem de decisão
+        for (int i = 0; i < decided; i++) {
+            Slot s = due[i];
+            s.intent.apply(s.agent, ctx.playerRef);
+            ground(s.agent);
+            s.pendingTpf = 0f;
+            s.waiting = false;
+            s.ctx = null;
+        }
+        for (int i = decided; i < dueCount; i++) {
+            due[i].waiting = true;
+            due[i].ctx = null;
+        }
+        // Os pedidos de caminho desta decisão seguem agora para o pool
+        if (pathfinder != null)
+            pathfinder.flush();
+        lastDecided = decided;
+        lastDeferred = dueCount - decided;
+    }
+
+    /**
+     * Acumula o tpf de todos os agentes e junta em {@code due} os que decidem
+     * neste tick: primeiro os próximos, depois os restantes (incluindo os que
+     * ficaram de fora do orçamento antes). Devolve quantos são.
+     */
+    private int schedule(AIContext ctx, float tpf) {
+        if (due.length < slots.length)
+            due = new Slot[slots.length];
+        int count = 0;
+        float near2 = NEAR_DISTANCE * NEAR_DISTANCE, mid2 = MID_DISTANCE * MID_DISTANCE;
+        for (Slot s : slots) {
+            s.pendingTpf += tpf;
+            s.distance2 = distance2(s.agent, ctx.playerPos);
+            if (s.distance2 < near2)
+                due[count++] = s;
+        }
+        nearCount = count;
+        for (Slot s : slots) {
+            if (s.distance2 < near2)
+                continue;
+            int interval = s.distance2 < mid2 ? MID_INTERVAL : FAR_INTERVAL;
+            if (s.waiting || (ticks + s.phase) % interval == 0)
+                due[count++] = s;
+        }
+        for (int i = 0; i < count; i++) {
+            Slot s = due[i];
+            s.ctx = s.pendingTpf == tpf ? ctx : ctx.withTpf(s.pendingTpf);
+        }
+        return count;
+    }
+
+    // Distância XZ² do agente ao jogador; agentes sem posição contam como próximos
+    private static float distance2(HasAI agent, Vec3 player) {
+        if (!(agent instanceof GameObject obj))
+            return 0f;
+        Vec3 p = obj.getPosition();
+        float dx = p.x - player.x, dz = p.z - player.z;
+        return dx * dx + dz * dz;
+    }
+
+    // Reconstrói slots quando o conjunto de agentes muda, mantendo o estado dos que continuam
+    private void refreshSlots() {
+        long version = registry.getVersion();
+        if (version == slotsVersion)
+            return;
+        slotsVersion = version;
+        List<HasAI> agents = registry.getAIObjects();
+        Slot[] next = new Slot[agents.size()];
+        Map<HasAI, Slot> kept = new IdentityHashMap<>();
+        for (int i = 0; i < next.length; i++) {
+            HasAI agent = agents.get(i);
+            Slot s = slotOf.get(agent);
+            if (s == null) {
+                s = new Slot(agent, nextPhase++);
+                ground(agent);
             }
+            next[i] = s;
+            kept.put(agent, s);
         }
+        slotOf.clear();
+        slotOf.putAll(kept);
+        slots = next;
+    }
+
+    // Assenta o agente no bloco sólido mais alto da sua coluna
+    private void ground(HasAI agent) {
+        if (groundWorld == null || !(agent instanceof GameObject obj))
+            return;
+        Vec3 p = obj.getPosition();
+        int topY = groundWorld.getTopSolidY((int) Math.floor(p.x), (int) Math.floor(p.z));
+        if (topY < 0)
+            return;
+        float targetY = topY + 1f;
+        // Evitar reescrever a posição por diferenças de precisão float
+        if (Math.abs(p.y - targetY) > 0.01f)
+            obj.setPosition(p.x, targetY, p.z);
+    }
+
+    // O chão mudou: voltar a assentar os agentes dessas colunas
+    private void surfaceChanged(int minX, int minZ, int maxX, int maxZ) {
+        nearby.clear();
+        registry.getSpatialIndex().query(minX, minZ, maxX + 1, maxZ + 1, nearby);
+        for (int i = 0; i < nearby.size(); i++) {
+            if (nearby.get(i) instanceof HasAI agent)
+                ground(agent);
+        }
+        nearby.clear();
+    }
+
+    /** Decisão dos agentes no pool fork-join (por omissão) ou na thread de render. */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Máximo de agentes a decidir por tick. Os agentes próximos decidem sempre,
+     * mesmo acima do limite; os restantes só até ele. Zero ou negativo desliga o limite.
+     */
+    public void setMaxAgentsPerTick(int maxAgentsPerTick) {
+        this.maxAgentsPerTick = maxAgentsPerTick;
+    }
+
+    public int getMaxAgentsPerTick() {
+        return maxAgentsPerTick;
+    }
+
+    /** Agentes que decidiram no último tick. */
+    public int getLastDecidedCount() {
+        return lastDecided;
+    }
+
+    /** Agentes devidos no último tick que ficaram para o seguinte por falta de orçamento. */
+    public int getLastDeferredCount() {
+        return lastDeferred;
+    }
+
+    private static void decide(Slot[] due, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Slot s = due[i];
+            s.intent.clear();
+            s.agent.decideAI(s.ctx, s.intent);
+        }
+    }
+
+    // Divide o intervalo de agentes ao meio até AGENTS_PER_TASK
+    private static final class DecideTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Slot[] due;
+        private final int from, to;
+
+        DecideTask(Slot[] due, int from, int to) {
+            this.due = due;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= AGENTS_PER_TASK) {
+                decide(due, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new DecideTask(due, from, mid), new DecideTask(due, mid, to));
+        }
+    }
+
+    /** Flow field em uso (null até o mundo existir). */
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    /** Pathfinder hierárquico em uso (null até o mundo existir). */
+    public HierarchicalPathfinder getPathfinder() {
+        return pathfinder;
     }
 
     @Override
     protected void cleanup(Application app) {
+        if (clock != null)
+            clock.removeListener(this);
+        dispose();
+    }
+
+    /** Liberta o flow field e as threads do pathfinder (já feito no cleanup). */
+    public void dispose() {
+        if (groundWorld != null) {
+            groundWorld.removeSurfaceListener(surfaceListener);
+            groundWorld = null;
+        }
+        if (flowField != null) {
+            flowField.dispose();
+            flowField = null;
+        }
+        if (pathfinder != null) {
+            pathfinder.dispose();
+            pathfinder = null;
+        }
     }
 
     @Override
@@ -20,6 +20,7 @@ public class InputAppState extends BaseAppState implements ActionListener, Analo
     private volatile boolean breakRequested;
     private volatile boolean placeRequested;
     private volatile boolean toggleShadingRequested;
+    private volatile boolean toggleMeshingRequested;
     private volatile boolean respawnRequested;
     private volatile boolean interactRequested;
     private volatile boolean printCoordsRequested;
@@ -56,6 +57,8 @@ public class InputAppState extends BaseAppState implements ActionListener, Analo
         im.addMapping("Place", new MouseButtonTrigger(com.jme3.input.MouseInput.BUTTON_RIGHT));
         // Alternar sombreamento (L)
         im.addMapping("ToggleShading", new KeyTrigger(KeyInput.KEY_L));
+        // Alternar meshing naive/greedy (G)
+        im.addMapping("ToggleMeshing", new KeyTrigger(KeyInput.KEY_G));
         // Renascer (R)
         im.addMapping("Respawn", new KeyTrigger(KeyInput.KEY_R));
         // Interagir (E)
@@ -72,7 +75,7 @@ public class InputAppState extends BaseAppState implements ActionListener, Analo
         im.addMapping("Highscores", new KeyTrigger(KeyInput.KEY_H));
 
         im.addListener(this, "MoveForward", "MoveBackward", "MoveLeft", "MoveRight", "Jump", "Sprint", "ToggleMouse",
-                "Break", "Place", "ToggleShading", "Respawn", "Interact", "PrintCoords", "Craft", "CraftRecipe1",
+                "Break", "Place", "ToggleShading", "ToggleMeshing", "Respawn", "Interact", "PrintCoords", "Craft", "CraftRecipe1",
                 "CraftRecipe2", "CraftRecipe3", "CraftRecipe4", "SaveGame", "LoadGame", "Highscores");
         im.addListener(this, "MouseX+", "MouseX-", "MouseY+", "MouseY-");
     }
@@ -94,6 +97,7 @@ public class InputAppState extends BaseAppState implements ActionListener, Analo
         im.deleteMapping("Break");
         im.deleteMapping("Place");
         im.deleteMapping("ToggleShading");
+        im.deleteMapping("ToggleMeshing");
         im.deleteMapping("Respawn");
         im.deleteMapping("Interact");
         im.deleteMapping("Craft");
@@ -144,6 +148,10 @@ public class InputAppState extends BaseAppState implements ActionListener, Analo
                 if (isPressed)
                     toggleShadingRequested = true;
             }
+            case "ToggleMeshing" -> {
+                if (isPressed)
+                    toggleMeshingRequested = true;
+            }
             case "Respawn" -> {
                 if (isPressed)
                     respawnRequested = true;
@@ -237,6 +245,12 @@ public class InputAppState extends BaseAppState implements ActionListener, Analo
         return r;
     }
 
+    public boolean consumeToggleMeshingRequested() {
+        boolean r = toggleMeshingRequested;
+        toggleMeshingRequested = false;
+        return r;
+    }
+
     public boolean consumeRespawnRequested() {
         boolean r = respawnRequested;
         respawnRequested = false;
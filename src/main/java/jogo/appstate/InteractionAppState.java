@@ -2,15 +2,12 @@ package jogo.appstate;
 
 import com.jme3.app.Application;
 import com.jme3.app.state.BaseAppState;
-import com.jme3.math.Ray;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
 import com.jme3.scene.Node;
-import com.jme3.scene.Spatial;
-import com.jme3.collision.CollisionResults;
 import com.jme3.audio.AudioNode;
 import com.jme3.audio.AudioData.DataType;
-import jogo.engine.RenderIndex;
+import jogo.engine.EntityPicker;
 import jogo.engine.GameRegistry;
 import jogo.gameobject.character.Player;
 import jogo.gameobject.item.BreakableItem;
@@ -20,6 +17,7 @@ import jogo.gameobject.item.Axe;
 import jogo.gameobject.Wood;
 import jogo.gameobject.GameObject;
 import jogo.gameobject.character.Enemy;
+import jogo.voxel.VoxelHit;
 import jogo.voxel.VoxelWorld;
 import jogo.voxel.VoxelPalette;
 
@@ -28,29 +26,32 @@ public class InteractionAppState extends BaseAppState {
     private final Node rootNode;
     private final Camera cam;
     private final InputAppState input;
-    private final RenderIndex renderIndex;
     private final GameRegistry registry;
     private final PlayerAppState playerAppState;
+    // Picking de objetos por caixas lógicas no índice espacial do registo
+    private final EntityPicker picker;
     private final WorldAppState world;
     private CraftingAppState craftingAppState; // Referência opcional para verificar estado de crafting
     private float reach = 5.5f;
 
     // Estado para mineração progressiva
     private jogo.voxel.VoxelWorld.Vector3i lastHitBlock = null;
+    // Resultado do raycast de vóxeis, reutilizado entre frames
+    private final VoxelHit voxelHit = new VoxelHit();
     private int hitCount = 0;
 
     // Som de ataque
     private AudioNode hitSound;
 
-    public InteractionAppState(Node rootNode, Camera cam, InputAppState input, RenderIndex renderIndex,
-            WorldAppState world, GameRegistry registry, PlayerAppState playerAppState) {
+    public InteractionAppState(Node rootNode, Camera cam, InputAppState input, WorldAppState world,
+            GameRegistry registry, PlayerAppState playerAppState) {
         this.rootNode = rootNode;
         this.cam = cam;
         this.input = input;
-        this.renderIndex = renderIndex;
         this.world = world;
         this.registry = registry;
         this.playerAppState = playerAppState;
+        this.picker = registry != null ? new EntityPicker(registry) : null;
     }
 
     /**
@@ -81,9 +82,7 @@ public class InteractionAppState extends BaseAppState {
             return;
 
         Vector3f origin = cam.getLocation();
-        Vector3f dir = cam.getDirection().normalize();
-        Ray ray = new Ray(origin, dir);
-        ray.setLimit(reach);
+        Vector3f dir = cam.getDirection();
 
         // 0) Teclas 1-4: Selecionar slot OU fabricar (dependendo do estado do crafting)
         boolean craftingOpen = (craftingAppState != null && craftingAppState.isOpen());
@@ -123,78 +122,66 @@ public class InteractionAppState extends BaseAppState {
 
         // 1) Interagir (Botão Genérico: E) -> Apanhar Itens
         if (input.consumeInteractRequested()) {
-            CollisionResults results = new CollisionResults();
-            rootNode.collideWith(ray, results);
-            if (results.size() > 0) {
-                Spatial hit = results.getClosestCollision().getGeometry();
-                GameObject obj = findRegistered(hit);
-                if (obj instanceof Item item) {
-                    Player player = playerAppState != null ? playerAppState.getPlayer() : null;
-                    if (player != null) {
-                        try {
-                            int type = itemTypeFor(item);
-                            player.getInventory().add(type, 1);
-                            if (registry != null)
-                                registry.remove(item);
-                            System.out.println("Item apanhado: " + obj.getName());
-                        } catch (RuntimeException e) {
-                            System.out.println("Não foi possível apanhar item: " + e.getMessage());
-                        }
+            VoxelWorld vw = world != null ? world.getVoxelWorld() : null;
+            GameObject obj = picker != null ? picker.pick(vw, origin, dir, reach, o -> o instanceof Item) : null;
+            if (obj instanceof Item item) {
+                Player player = playerAppState != null ? playerAppState.getPlayer() : null;
+                if (player != null) {
+                    try {
+                        int type = itemTypeFor(item);
+                        player.getInventory().add(type, 1);
+                        if (registry != null)
+                            registry.remove(item);
+                        System.out.println("Item apanhado: " + obj.getName());
+                    } catch (RuntimeException e) {
+                        System.out.println("Não foi possível apanhar item: " + e.getMessage());
                     }
-                    return;
                 }
+                return;
             }
         }
 
         // 2) Atacar Inimigos (Clique Esquerdo em inimigo)
         // Verifica se clicou num inimigo antes de verificar blocos
         if (input.consumeBreakRequested()) {
-            // Primeiro verificar se acertou num inimigo
-            CollisionResults enemyResults = new CollisionResults();
-            rootNode.collideWith(ray, enemyResults);
+            // Primeiro verificar se acertou num inimigo (os blocos tapam o raio)
+            VoxelWorld pickWorld = world != null ? world.getVoxelWorld() : null;
+            GameObject target = picker != null ? picker.pick(pickWorld, origin, dir, reach, o -> o instanceof Enemy)
+                    : null;
 
             boolean hitEnemy = false;
-            for (int i = 0; i < enemyResults.size(); i++) {
-                Spatial hit = enemyResults.getCollision(i).getGeometry();
-                GameObject obj = findRegistered(hit);
-                if (obj instanceof Enemy enemy) {
-                    // Calcular distância
-                    float distance = enemyResults.getCollision(i).getDistance();
-                    if (distance <= reach) {
-                        // Atacar o inimigo
-                        int damage = 25; // Dano base do jogador
-                        enemy.takeDamage(damage);
-
-                        // Tocar som de ataque
-                        if (hitSound != null) {
-                            hitSound.playInstance();
-                        }
+            if (target instanceof Enemy enemy) {
+                // Atacar o inimigo
+                int damage = 25; // Dano base do jogador
+                enemy.takeDamage(damage);
+
+                // Tocar som de ataque
+                if (hitSound != null) {
+                    hitSound.playInstance();
+                }
 
-                        System.out.println("Atacou " + enemy.getName() + "! HP: " + enemy.getHealth());
+                System.out.println("Atacou " + enemy.getName() + "! HP: " + enemy.getHealth());
 
-                        // Se o inimigo morreu
-                        if (!enemy.isAlive()) {
-                            if (registry != null) {
-                                registry.remove(enemy);
-                            }
-                            // Contabilizar para highscore
-                            if (playerAppState != null && playerAppState.getPlayer() != null) {
-                                playerAppState.getPlayer().incrementEnemiesDefeated();
-                                System.out.println(
-                                        "Inimigo derrotado! Total: " + playerAppState.getPlayer().getEnemiesDefeated());
-                            }
-                        }
-                        hitEnemy = true;
-                        break;
+                // Se o inimigo morreu
+                if (!enemy.isAlive()) {
+                    if (registry != null) {
+                        registry.remove(enemy);
+                    }
+                    // Contabilizar para highscore
+                    if (playerAppState != null && playerAppState.getPlayer() != null) {
+                        playerAppState.getPlayer().incrementEnemiesDefeated();
+                        System.out.println(
+                                "Inimigo derrotado! Total: " + playerAppState.getPlayer().getEnemiesDefeated());
                     }
                 }
+                hitEnemy = true;
             }
 
             // Se não acertou inimigo, tentar minar bloco
             if (!hitEnemy) {
                 VoxelWorld vw = world != null ? world.getVoxelWorld() : null;
                 if (vw != null) {
-                    mineBlock(vw, ray);
+                    mineBlock(vw);
                 }
             }
         }
@@ -218,39 +205,25 @@ public class InteractionAppState extends BaseAppState {
                         blockToPlace = VoxelPalette.WOOD_ID;
 
                     if (blockToPlace > 0) {
-                        final byte finalBlockToPlace = blockToPlace; // efetivamente final para lambda
-                        vw.pickFirstSolid(cam, reach).ifPresent(hit -> {
+                        if (vw.raycast(cam.getLocation(), cam.getDirection(), reach, voxelHit)) {
                             // Colocar contra a face
-                            int tx = hit.cell.x + (int) hit.normal.x;
-                            int ty = hit.cell.y + (int) hit.normal.y;
-                            int tz = hit.cell.z + (int) hit.normal.z;
+                            int tx = voxelHit.x + voxelHit.normalX;
+                            int ty = voxelHit.y + voxelHit.normalY;
+                            int tz = voxelHit.z + voxelHit.normalZ;
 
                             // Garantir que o alvo está vazio (ar) antes de colocar
                             if (vw.getBlock(tx, ty, tz) == VoxelPalette.AIR_ID) {
-                                vw.setBlock(tx, ty, tz, finalBlockToPlace);
-                                vw.rebuildDirtyChunks(world.getPhysicsSpace());
-                                playerAppState.refreshPhysics();
+                                vw.setBlock(tx, ty, tz, blockToPlace); // reconstruído pelo WorldAppState
                                 p.getInventory().removeAt(slot, 1);
-                                System.out.println("Placed block " + finalBlockToPlace);
+                                System.out.println("Placed block " + blockToPlace);
                             }
-                        });
+                        }
                     }
                 }
             }
         }
     }
 
-    private GameObject findRegistered(Spatial s) {
-        Spatial cur = s;
-        while (cur != null) {
-            GameObject obj = renderIndex.lookup(cur);
-            if (obj != null)
-                return obj;
-            cur = cur.getParent();
-        }
-        return null;
-    }
-
     private int itemTypeFor(Item item) {
         if (item instanceof Axe)
             return 400;
@@ -266,57 +239,55 @@ public class InteractionAppState extends BaseAppState {
     }
 
     /** Lógica de mineração de blocos. */
-    private void mineBlock(VoxelWorld vw, Ray ray) {
-        vw.pickFirstSolid(cam, reach).ifPresent(hit -> {
-            VoxelWorld.Vector3i cell = hit.cell;
-            // Verificar se é o mesmo bloco de antes
-            if (lastHitBlock == null || cell.x != lastHitBlock.x || cell.y != lastHitBlock.y
-                    || cell.z != lastHitBlock.z) {
-                lastHitBlock = cell;
-                hitCount = 0;
-            }
-            hitCount++;
-
-            byte id = vw.getBlock(cell.x, cell.y, cell.z);
-            int requiredHits = 1;
-            int dropType = -1;
-
-            // Verificar eficiência da ferramenta
-            Player p = playerAppState != null ? playerAppState.getPlayer() : null;
-            int heldItem = (p != null) ? p.getInventory().getItemTypeAt(p.getSelectedSlot()) : 0;
-            boolean isAxe = (heldItem == 400);
-
-            if (id == VoxelPalette.LOG_ID) {
-                requiredHits = isAxe ? 2 : 4;
-                dropType = 200; // Item Madeira
-            } else if (id == VoxelPalette.DIRT_ID) {
-                requiredHits = 3;
-                dropType = 300; // Item Terra
-            } else if (id == VoxelPalette.STONE_ID) {
-                requiredHits = 6;
-            } else if (id == VoxelPalette.LEAVES_ID) {
-                requiredHits = 1;
-            }
-
-            System.out.println("Acertou bloco ID " + id + ": " + hitCount + "/" + requiredHits);
+    private void mineBlock(VoxelWorld vw) {
+        VoxelHit cell = voxelHit;
+        if (!vw.raycast(cam.getLocation(), cam.getDirection(), reach, cell))
+            return;
+        // Verificar se é o mesmo bloco de antes
+        if (lastHitBlock == null || cell.x != lastHitBlock.x || cell.y != lastHitBlock.y
+                || cell.z != lastHitBlock.z) {
+            lastHitBlock = new VoxelWorld.Vector3i(cell.x, cell.y, cell.z);
+            hitCount = 0;
+        }
+        hitCount++;
+
+        byte id = vw.getBlock(cell.x, cell.y, cell.z);
+        int requiredHits = 1;
+        int dropType = -1;
+
+        // Verificar eficiência da ferramenta
+        Player p = playerAppState != null ? playerAppState.getPlayer() : null;
+        int heldItem = (p != null) ? p.getInventory().getItemTypeAt(p.getSelectedSlot()) : 0;
+        boolean isAxe = (heldItem == 400);
+
+        if (id == VoxelPalette.LOG_ID) {
+            requiredHits = isAxe ? 2 : 4;
+            dropType = 200; // Item Madeira
+        } else if (id == VoxelPalette.DIRT_ID) {
+            requiredHits = 3;
+            dropType = 300; // Item Terra
+        } else if (id == VoxelPalette.STONE_ID) {
+            requiredHits = 6;
+        } else if (id == VoxelPalette.LEAVES_ID) {
+            requiredHits = 1;
+        }
 
-            if (hitCount >= requiredHits) {
-                if (vw.breakAt(cell.x, cell.y, cell.z)) {
-                    vw.rebuildDirtyChunks(world.getPhysicsSpace());
-                    playerAppState.refreshPhysics();
+        System.out.println("Acertou bloco ID " + id + ": " + hitCount + "/" + requiredHits);
 
-                    if (dropType != -1 && playerAppState != null) {
-                        playerAppState.getPlayer().getInventory().add(dropType, 1);
-                        playerAppState.getPlayer().incrementBlocksMined();
-                        System.out.println("Item minerado tipo: " + dropType + " (Total: "
-                                + playerAppState.getPlayer().getBlocksMined() + ")");
-                    }
-                    // Reiniciar
-                    hitCount = 0;
-                    lastHitBlock = null;
+        if (hitCount >= requiredHits) {
+            if (vw.breakAt(cell.x, cell.y, cell.z)) {
+                // A malha e a física do chunk são reconstruídas pelo WorldAppState
+                if (dropType != -1 && playerAppState != null) {
+                    playerAppState.getPlayer().getInventory().add(dropType, 1);
+                    playerAppState.getPlayer().incrementBlocksMined();
+                    System.out.println("Item minerado tipo: " + dropType + " (Total: "
+                            + playerAppState.getPlayer().getBlocksMined() + ")");
                 }
+                // Reiniciar
+                hitCount = 0;
+                lastHitBlock = null;
             }
-        });
+        }
     }
 
     @Override
@@ -69,6 +69,9 @@ public class PlayerAppState extends BaseAppState {
         characterControl.setJumpForce(new Vector3f(0, 400f, 0));
         playerNode.addControl(characterControl);
         physicsSpace.add(characterControl);
+        // Os chunks à volta do jogador têm física e acordam-no quando o chão muda
+        if (world != null)
+            world.getVoxelWorld().addDynamicBody(characterControl.getRigidBody());
 
         // Fonte de luz local que segue a cabeça do jogador
         playerLight = new PointLight();
@@ -171,6 +174,8 @@ public class PlayerAppState extends BaseAppState {
     protected void cleanup(Application app) {
         if (playerNode != null) {
             if (characterControl != null) {
+                if (world != null)
+                    world.getVoxelWorld().removeDynamicBody(characterControl.getRigidBody());
                 physicsSpace.remove(characterControl);
                 playerNode.removeControl(characterControl);
                 characterControl = null;
@@ -192,13 +197,6 @@ public class PlayerAppState extends BaseAppState {
     protected void onDisable() {
     }
 
-    public void refreshPhysics() {
-        if (characterControl != null) {
-            physicsSpace.remove(characterControl);
-            physicsSpace.add(characterControl);
-        }
-    }
-
     public Player getPlayer() {
         return player;
     }
@@ -5,17 +5,18 @@ import com.jme3.app.state.BaseAppState;
 import com.jme3.asset.AssetManager;
 import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
+import com.jme3.scene.instancing.InstancedNode;
 import com.jme3.scene.shape.Box;
 import com.jme3.scene.shape.Cylinder;
 import com.jme3.texture.Texture2D;
 import com.jme3.texture.Texture;
 import jogo.engine.GameRegistry;
 import jogo.engine.RenderIndex;
-import jogo.voxel.VoxelWorld;
+import jogo.engine.SimulationClock;
+import jogo.engine.SpatialPool;
 import jogo.framework.math.Vec3;
 import jogo.gameobject.GameObject;
 import jogo.gameobject.Wood;
@@ -24,126 +25,340 @@ import jogo.gameobject.character.Character;
 import jogo.gameobject.character.Ally;
 import jogo.gameobject.character.Enemy;
 import jogo.gameobject.item.Item;
+import jogo.util.CharacterModelFactory;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class RenderAppState extends BaseAppState {
 
+    /** Tipos de modelo com pool de spatials (ver {@link #setPoolLimits}). */
+    public static final String MODEL_PLAYER = "player";
+    public static final String MODEL_ENEMY = "enemy";
+    public static final String MODEL_ALLY = "ally";
+    public static final String MODEL_WOOD = "wood";
+    public static final String MODEL_ITEM = "item";
+
+    private static final String ENEMY_SKIN = "skins/cena_estranha.png";
+    private static final String ALLY_SKIN = "skins/ally.png";
+
     private final Node rootNode;
     private final AssetManager assetManager;
     private final GameRegistry registry;
     private final RenderIndex renderIndex;
-    private final WorldAppState worldAppState;
+    // Com relógio, os movimentos feitos em ticks são interpolados entre o tick anterior e o último
+    private final SimulationClock clock;
 
     private Node gameNode;
-    private final Map<GameObject, Spatial> instances = new HashMap<>();
+    // Personagens com a mesma skin partilham malha e material: o InstancedNode desenha-os num só draw call
+    private InstancedNode characterNode;
+    private final CharacterModelFactory characterModels;
+    // Spatials largados são reciclados por tipo de modelo; pré-aquecimento e máximo de livres por tipo
+    private final SpatialPool pool = new SpatialPool();
+    private final Map<String, int[]> poolLimits = new LinkedHashMap<>();
+    // Partilhados pelos modelos de item
+    private Box itemBox;
+    private Material woodMaterial, itemMaterial;
+    // Spatial de cada objeto desenhado e versão da posição que lhe foi aplicada
+    private final Map<GameObject, Entry> instances = new IdentityHashMap<>();
+    // Entradas e saídas do registo por tratar (podem chegar de outra thread)
+    private final Queue<GameObject> pendingAdded = new ConcurrentLinkedQueue<>();
+    private final Queue<GameObject> pendingRemoved = new ConcurrentLinkedQueue<>();
+    // Objetos a sincronizar neste frame: os que entraram ou se mexeram fora de um tick
+    private final List<Entry> dirty = new ArrayList<>();
+    // Objetos que se mexeram no último tick e estão a ser interpolados
+    private final List<Entry> moving = new ArrayList<>();
+    private final GameRegistry.Listener registryListener = new GameRegistry.Listener() {
+        @Override
+        public void added(GameObject obj) {
+            pendingAdded.add(obj);
+        }
+
+        @Override
+        public void removed(GameObject obj) {
+            pendingRemoved.add(obj);
+        }
+
+        @Override
+        public void moved(GameObject obj) {
+            RenderAppState.this.moved(instances.get(obj));
+        }
+    };
+
+    private static final class Entry {
+        final GameObject obj;
+        final String kind;
+        final Spatial spatial;
+        long syncedVersion = -1;
+        boolean queued; // já está em dirty (ou a ser sincronizado)
+        // Posição no fim do tick anterior e no fim do tick toTick (o último em que se mexeu)
+        float fromX, fromY, fromZ, toX, toY, toZ;
+        long toTick = Long.MIN_VALUE;
+        boolean interpolating; // está em moving
+
+        Entry(GameObject obj, String kind, Spatial spatial) {
+            this.obj = obj;
+            this.kind = kind;
+            this.spatial = spatial;
+        }
+    }
+
+    public RenderAppState(Node rootNode, AssetManager assetManager, GameRegistry registry, RenderIndex renderIndex) {
+        this(rootNode, assetManager, registry, renderIndex, null);
+    }
 
+    /** Como o anterior, interpolando as posições entre os ticks do relógio de simulação. */
     public RenderAppState(Node rootNode, AssetManager assetManager, GameRegistry registry, RenderIndex renderIndex,
-            WorldAppState worldAppState) {
+            SimulationClock clock) {
         this.rootNode = rootNode;
         this.assetManager = assetManager;
         this.registry = registry;
         this.renderIndex = renderIndex;
-        this.worldAppState = worldAppState;
+        this.clock = clock;
+        this.characterModels = new CharacterModelFactory(assetManager, true);
+        poolLimits.put(MODEL_PLAYER, new int[] { 0, 1 });
+        poolLimits.put(MODEL_ENEMY, new int[] { 32, 256 });
+        poolLimits.put(MODEL_ALLY, new int[] { 4, 32 });
+        poolLimits.put(MODEL_WOOD, new int[] { 8, 128 });
+        poolLimits.put(MODEL_ITEM, new int[] { 8, 128 });
+    }
+
+    /**
+     * Limites do pool de um tipo de modelo (MODEL_*): quantos spatials criar
+     * logo na inicialização e quantos livres guardar no máximo. Se o estado já
+     * estiver inicializado aplica-se de imediato.
+     */
+    public void setPoolLimits(String kind, int prewarm, int maxFree) {
+        if (!poolLimits.containsKey(kind))
+            throw new IllegalArgumentException("Tipo de modelo desconhecido: " + kind);
+        poolLimits.put(kind, new int[] { prewarm, maxFree });
+        if (isInitialized())
+            definePool(kind);
+    }
+
+    /** Pool de spatials (estatísticas por tipo). */
+    public SpatialPool getPool() {
+        return pool;
     }
 
     @Override
     protected void initialize(Application app) {
         gameNode = new Node("GameObjects");
         rootNode.attachChild(gameNode);
+        characterNode = new InstancedNode("Characters");
+        gameNode.attachChild(characterNode);
+        // Pré-aquecer os pools para que o primeiro spawn de uma onda não crie modelos
+        for (String kind : poolLimits.keySet())
+            definePool(kind);
+        // Os objetos registados antes deste estado entram como adições
+        registry.addListener(registryListener);
+        pendingAdded.addAll(registry.getAll());
     }
 
+    /**
+     * Sincroniza só o que mudou: cria/larga spatials das entradas e saídas do
+     * registo e atualiza a posição dos objetos que se mexeram. Objetos parados
+     * não custam nada por frame. Os que se mexeram no último tick são desenhados
+     * entre a posição do tick anterior e a do último, pela fração do relógio.
+     */
     @Override
     public void update(float tpf) {
-        // Garantir que cada objeto registado tem um spatial e posição sincronizada
-        var current = registry.getAll();
-        Set<GameObject> alive = new HashSet<>(current);
-
-        for (GameObject obj : current) {
-            Spatial s = instances.get(obj);
-            if (s == null) {
-                s = createSpatialFor(obj);
-                if (s != null) {
-                    gameNode.attachChild(s);
-                    instances.put(obj, s);
-                    renderIndex.register(s, obj);
-                }
-            }
-            // Adicionar fisica as instancias de Ally e Enemy
-            if (s != null) {
-                Vec3 p = obj.getPosition();
-                if (obj instanceof Ally || obj instanceof Enemy) {
-                    VoxelWorld vw = worldAppState != null ? worldAppState.getVoxelWorld() : null;
-                    if (vw != null) {
-                        int topY = vw.getTopSolidY((int) p.x, (int) p.z);
-                        if (topY >= 0) {
-                            float targetY = topY + 1f;
-                            // Verificar diferença para evitar instabilidade de precisão float, definir para
-                            // targetY (nível do solo)
-                            if (Math.abs(p.y - targetY) > 0.01f) {
-                                obj.setPosition(p.x, targetY, p.z);
-                                p = obj.getPosition();
-                            }
-                        }
-                    }
-                }
-                s.setLocalTranslation(new Vector3f(p.x, p.y, p.z));
-            }
+        GameObject obj;
+        while ((obj = pendingRemoved.poll()) != null)
+            release(obj);
+        boolean newCharacters = false;
+        while ((obj = pendingAdded.poll()) != null)
+            newCharacters |= create(obj);
+
+        for (int i = 0; i < dirty.size(); i++)
+            sync(dirty.get(i));
+        dirty.clear();
+        interpolate();
+        // Agrupar já as geometrias novas (a transformação de cada instância vem da posição acima)
+        if (newCharacters)
+            characterNode.instance();
+    }
+
+    // Cria o spatial de um objeto que entrou no registo; devolve true se for um personagem
+    private boolean create(GameObject obj) {
+        if (instances.containsKey(obj) || !registry.contains(obj))
+            return false;
+        String kind = modelKind(obj);
+        if (kind == null)
+            return false;
+        Spatial s = pool.acquire(kind);
+        s.setName(obj.getName());
+        boolean character = obj instanceof Ally || obj instanceof Enemy;
+        if (character)
+            characterNode.attachChild(s);
+        else
+            gameNode.attachChild(s);
+        renderIndex.register(s, obj);
+        Entry e = new Entry(obj, kind, s);
+        instances.put(obj, e);
+        markDirty(e);
+        return character;
+    }
+
+    // Larga o spatial de um objeto que saiu do registo
+    private void release(GameObject obj) {
+        if (registry.contains(obj))
+            return; // voltou a entrar entretanto
+        Entry e = instances.remove(obj);
+        if (e == null)
+            return;
+        renderIndex.unregister(e.spatial);
+        if (e.spatial.getParent() != null)
+            e.spatial.removeFromParent();
+        pool.release(e.kind, e.spatial);
+        e.queued = true; // se ainda estiver em dirty, sync ignora-o
+    }
+
+    private void markDirty(Entry e) {
+        if (e != null && !e.queued) {
+            e.queued = true;
+            dirty.add(e);
+        }
+    }
+
+    // Coloca o spatial na posição atual do objeto (sem interpolar)
+    private void sync(Entry e) {
+        if (instances.get(e.obj) != e)
+            return;
+        Vec3 p = e.obj.getPosition();
+        e.fromX = e.toX = p.x;
+        e.fromY = e.toY = p.y;
+        e.fromZ = e.toZ = p.z;
+        e.toTick = Long.MIN_VALUE;
+        long version = e.obj.getPositionVersion();
+        if (version != e.syncedVersion) {
+            e.spatial.setLocalTranslation(p.x, p.y, p.z);
+            e.syncedVersion = version;
         }
+        e.queued = false;
+    }
+
+    // Movimento de um objeto: dentro de um tick fica para interpolar, fora salta logo para lá
+    private void moved(Entry e) {
+        if (e == null)
+            return;
+        if (clock == null || !clock.isTicking()) {
+            markDirty(e);
+            return;
+        }
+        Vec3 p = e.obj.getPosition();
+        long tick = clock.getTick();
+        if (e.toTick != tick) {
+            // Primeiro movimento neste tick: parte de onde acabou o anterior
+            e.fromX = e.toX;
+            e.fromY = e.toY;
+            e.fromZ = e.toZ;
+            e.toTick = tick;
+        }
+        e.toX = p.x;
+        e.toY = p.y;
+        e.toZ = p.z;
+        if (!e.interpolating) {
+            e.interpolating = true;
+            moving.add(e);
+        }
+    }
 
-        // Limpeza: remover spatials para objetos que já não estão no registo
-        var it = instances.entrySet().iterator();
-        while (it.hasNext()) {
-            var e = it.next();
-            if (!alive.contains(e.getKey())) {
-                Spatial s = e.getValue();
-                renderIndex.unregister(s);
-                if (s.getParent() != null)
-                    s.removeFromParent();
-                it.remove();
+    // Desenha os objetos do último tick entre from e to; os restantes ficam em to e saem da lista
+    private void interpolate() {
+        if (moving.isEmpty())
+            return;
+        long last = clock.getTick() - 1;
+        float alpha = clock.getAlpha();
+        for (int i = moving.size() - 1; i >= 0; i--) {
+            Entry e = moving.get(i);
+            boolean live = instances.get(e.obj) == e;
+            if (live && e.toTick == last) {
+                e.spatial.setLocalTranslation(e.fromX + (e.toX - e.fromX) * alpha,
+                        e.fromY + (e.toY - e.fromY) * alpha, e.fromZ + (e.toZ - e.fromZ) * alpha);
+                continue;
             }
+            if (live && e.toTick != Long.MIN_VALUE)
+                e.spatial.setLocalTranslation(e.toX, e.toY, e.toZ);
+            e.interpolating = false;
+            int end = moving.size() - 1;
+            moving.set(i, moving.get(end));
+            moving.remove(end);
         }
     }
 
-    private Spatial createSpatialFor(GameObject obj) {
+    private void definePool(String kind) {
+        int[] limits = poolLimits.get(kind);
+        pool.define(kind, () -> createModel(kind), limits[0], limits[1]);
+    }
+
+    // Tipo de modelo de um objeto (null se não for desenhado)
+    private static String modelKind(GameObject obj) {
         // TODO Isto poderia ser definido dentro de cada GameObject!
-        if (obj instanceof Player) {
-            Geometry g = new Geometry(obj.getName(), new Cylinder(16, 16, 0.35f, 1.4f, true));
-            g.setMaterial(colored(ColorRGBA.Green));
-            return g;
-        } else if (obj instanceof Enemy) {
-            // Atualizado para usar SkinUtils e caminho correto (skins/cena_estranha.png)
-            return jogo.util.SkinUtils.createCharacterModel(assetManager, "skins/cena_estranha.png");
-        } else if (obj instanceof Ally) {
-            // Usar temporariamente a mesma skin ou ally.jpg se existir
-            return jogo.util.SkinUtils.createCharacterModel(assetManager, "skins/ally.png");
-        } else if (obj instanceof Wood) {
-            Geometry g = new Geometry(obj.getName(), new Box(0.3f, 0.3f, 0.3f));
-            Texture2D tex = (Texture2D) assetManager.loadTexture("textures/blocks/oak_planks.png");
-            tex.setMagFilter(Texture.MagFilter.Nearest);
-            tex.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
-            tex.setAnisotropicFilter(1);
-            tex.setWrap(Texture.WrapMode.Repeat);
-            tex.setWrap(Texture.WrapMode.Repeat);
-            Material m = new Material(assetManager, "Common/MatDefs/Light/Lighting.j3md");
-            m.setTexture("DiffuseMap", tex);
-            m.setBoolean("UseMaterialColors", true);
-            m.setColor("Diffuse", ColorRGBA.White);
-            m.setColor("Specular", ColorRGBA.White.mult(0.01f));
-            m.setFloat("Shininess", 8f);
-            g.setMaterial(m);
-            return g;
-        } else if (obj instanceof Item) {
-            Geometry g = new Geometry(obj.getName(), new Box(0.3f, 0.3f, 0.3f));
-            g.setMaterial(colored(ColorRGBA.White));
-            return g;
-        }
+        if (obj instanceof Player)
+            return MODEL_PLAYER;
+        if (obj instanceof Enemy)
+            return MODEL_ENEMY;
+        if (obj instanceof Ally)
+            return MODEL_ALLY;
+        if (obj instanceof Wood)
+            return MODEL_WOOD;
+        if (obj instanceof Item)
+            return MODEL_ITEM;
         return null;
     }
 
+    // Fábrica dos pools: malhas e materiais são partilhados por todos os modelos do mesmo tipo
+    private Spatial createModel(String kind) {
+        switch (kind) {
+            case MODEL_PLAYER: {
+                Geometry g = new Geometry(kind, new Cylinder(16, 16, 0.35f, 1.4f, true));
+                g.setMaterial(colored(ColorRGBA.Green));
+                return g;
+            }
+            case MODEL_ENEMY:
+                return characterModels.create(ENEMY_SKIN);
+            case MODEL_ALLY:
+                return characterModels.create(ALLY_SKIN);
+            case MODEL_WOOD: {
+                if (woodMaterial == null) {
+                    Texture2D tex = (Texture2D) assetManager.loadTexture("textures/blocks/oak_planks.png");
+                    tex.setMagFilter(Texture.MagFilter.Nearest);
+                    tex.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
+                    tex.setAnisotropicFilter(1);
+                    tex.setWrap(Texture.WrapMode.Repeat);
+                    woodMaterial = new Material(assetManager, "Common/MatDefs/Light/Lighting.j3md");
+                    woodMaterial.setTexture("DiffuseMap", tex);
+                    woodMaterial.setBoolean("UseMaterialColors", true);
+                    woodMaterial.setColor("Diffuse", ColorRGBA.White);
+                    woodMaterial.setColor("Specular", ColorRGBA.White.mult(0.01f));
+                    woodMaterial.setFloat("Shininess", 8f);
+                }
+                Geometry g = new Geometry(kind, itemBox());
+                g.setMaterial(woodMaterial);
+                return g;
+            }
+            default: {
+                if (itemMaterial == null)
+                    itemMaterial = colored(ColorRGBA.White);
+                Geometry g = new Geometry(kind, itemBox());
+                g.setMaterial(itemMaterial);
+                return g;
+            }
+        }
+    }
+
+    private Box itemBox() {
+        if (itemBox == null)
+            itemBox = new Box(0.3f, 0.3f, 0.3f);
+        return itemBox;
+    }
+
     private Material colored(ColorRGBA color) {
         Material m = new Material(assetManager, "Common/MatDefs/Light/Lighting.j3md");
         m.setBoolean("UseMaterialColors", true);
@@ -159,7 +374,17 @@ public class RenderAppState extends BaseAppState {
             gameNode.removeFromParent();
             gameNode = null;
         }
+        characterNode = null;
+        registry.removeListener(registryListener);
+        pendingAdded.clear();
+        pendingRemoved.clear();
+        dirty.clear();
+        moving.clear();
         instances.clear();
+        pool.clear();
+        itemBox = null;
+        woodMaterial = itemMaterial = null;
+        characterModels.clear();
     }
 
     @Override
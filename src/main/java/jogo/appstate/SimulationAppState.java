@@ -0,0 +1,44 @@
+package jogo.appstate;
+
+import com.jme3.app.Application;
+import com.jme3.app.state.BaseAppState;
+import jogo.engine.SimulationClock;
+
+/**
+ * Avança o {@link SimulationClock} uma vez por frame. Os estados com lógica de
+ * passo fixo (ex.: {@link AIAppState}) registam-se no relógio e correm dentro
+ * deste update; deve ser anexado antes do {@link RenderAppState} para que o
+ * render do mesmo frame já veja os ticks novos.
+ */
+public class SimulationAppState extends BaseAppState {
+    private final SimulationClock clock;
+
+    public SimulationAppState(SimulationClock clock) {
+        this.clock = clock;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    @Override
+    protected void initialize(Application app) {
+    }
+
+    @Override
+    public void update(float tpf) {
+        clock.advance(tpf);
+    }
+
+    @Override
+    protected void cleanup(Application app) {
+    }
+
+    @Override
+    protected void onEnable() {
+    }
+
+    @Override
+    protected void onDisable() {
+    }
+}
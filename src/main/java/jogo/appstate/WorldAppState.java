@@ -4,7 +4,6 @@ import com.jme3.app.Application;
 import com.jme3.app.state.BaseAppState;
 import com.jme3.asset.AssetManager;
 import com.jme3.bullet.PhysicsSpace;
-import com.jme3.bullet.control.RigidBodyControl;
 import com.jme3.light.AmbientLight;
 import com.jme3.light.DirectionalLight;
 import com.jme3.math.ColorRGBA;
@@ -28,6 +27,10 @@ public class WorldAppState extends BaseAppState {
     private VoxelWorld voxelWorld;
     private com.jme3.math.Vector3f spawnPosition;
 
+    private static final int VIEW_DISTANCE = 8; // raio de streaming em chunks
+    // Tempo máximo por frame para aplicar/agendar reconstruções de chunks
+    private float chunkBudgetMs = 4f;
+
     public WorldAppState(Node rootNode, AssetManager assetManager, PhysicsSpace physicsSpace, Camera cam,
             InputAppState input, GameRegistry registry) {
         this.rootNode = rootNode;
@@ -57,9 +60,13 @@ public class WorldAppState extends BaseAppState {
         sun.setColor(ColorRGBA.White.mult(0.85f)); // sol ligeiramente mais fraco
         worldNode.addLight(sun);
 
-        // Mundo Voxel 16x16x16 (tamanho reduzido para simplicidade)
-        voxelWorld = new VoxelWorld(assetManager, 320, 32, 320);
+        // Mundo Voxel infinito em X/Z (32 de altura), gerado em anéis em torno do jogador
+        voxelWorld = new VoxelWorld(assetManager, 32);
+        voxelWorld.setSpawnColumn(160, 160);
+        voxelWorld.setViewDistance(VIEW_DISTANCE);
+        voxelWorld.setSunLight(sun.getDirection(), sun.getColor(), ambient.getColor());
         voxelWorld.generateLayers();
+        voxelWorld.setApplication(app);
         voxelWorld.buildMeshes();
         voxelWorld.clearAllDirtyFlags();
         worldNode.attachChild(voxelWorld.getNode());
@@ -77,6 +84,14 @@ public class WorldAppState extends BaseAppState {
         return voxelWorld;
     }
 
+    public float getChunkBudgetMs() {
+        return chunkBudgetMs;
+    }
+
+    public void setChunkBudgetMs(float chunkBudgetMs) {
+        this.chunkBudgetMs = Math.max(0.1f, chunkBudgetMs);
+    }
+
     public PhysicsSpace getPhysicsSpace() {
         return physicsSpace;
     }
@@ -87,22 +102,31 @@ public class WorldAppState extends BaseAppState {
         if (input != null && input.consumeToggleShadingRequested()) {
             voxelWorld.toggleRenderDebug();
         }
+        if (input != null && input.consumeToggleMeshingRequested()) {
+            // Reconstruir todos os chunks com o outro modo para comparar triângulos/frame
+            voxelWorld.setMeshingMode(voxelWorld.getMeshingMode().next());
+            System.out.println("Meshing mode: " + voxelWorld.getMeshingMode());
+        }
+        // Carregar/descarregar colunas de chunks em torno do jogador (a câmara segue-o)
+        Vector3f p = cam.getLocation();
+        voxelWorld.updateStreaming(p.x, p.z, physicsSpace);
+        // Reconstruir chunks sujos por prioridade (câmara/frustum) dentro do orçamento
+        voxelWorld.processDirtyChunks(cam, chunkBudgetMs, physicsSpace);
+        // Corpos estáticos apenas para chunks perto do jogador (e outros corpos dinâmicos)
+        voxelWorld.updatePhysicsProximity(physicsSpace);
     }
 
     @Override
     protected void cleanup(Application app) {
         if (worldNode != null) {
-            // Remover todos os controlos de física sob worldNode
-            worldNode.depthFirstTraversal(spatial -> {
-                RigidBodyControl rbc = spatial.getControl(RigidBodyControl.class);
-                if (rbc != null) {
-                    physicsSpace.remove(rbc);
-                    spatial.removeControl(rbc);
-                }
-            });
             worldNode.removeFromParent();
             worldNode = null;
         }
+        if (voxelWorld != null) {
+            // Os corpos dos chunks não estão no grafo de cena: retirá-los do espaço
+            voxelWorld.removePhysics(physicsSpace);
+            voxelWorld.shutdown();
+        }
     }
 
     @Override
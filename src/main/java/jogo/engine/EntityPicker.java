@@ -0,0 +1,95 @@
+package jogo.engine;
+
+import com.jme3.math.Vector3f;
+import jogo.framework.math.Vec3;
+import jogo.gameobject.GameObject;
+import jogo.voxel.VoxelHit;
+import jogo.voxel.VoxelWorld;
+
+import java.util.ArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Picking de objetos de jogo por raio. O raio é primeiro cortado no primeiro
+ * bloco atingido (DDA de vóxeis) e só depois testado contra as caixas lógicas
+ * ({@link GameObject#getHalfWidth()} etc.) dos objetos nas células do
+ * {@link SpatialGrid} que atravessa. Não toca no grafo de cena, por isso o
+ * custo não depende do número de triângulos do mundo. Só usado na thread de
+ * render.
+ */
+public class EntityPicker {
+    private final SpatialGrid index;
+    private final ArrayList<GameObject> candidates = new ArrayList<>();
+    private final VoxelHit voxelHit = new VoxelHit();
+    private float lastDistance;
+    private float slabMin, slabMax;
+
+    public EntityPicker(GameRegistry registry) {
+        this.index = registry.getSpatialIndex();
+    }
+
+    /**
+     * Objeto mais próximo aceite por {@code filter} cuja caixa o raio atinge a
+     * menos de maxDistance, ou null. Com {@code voxels} não null os objetos atrás
+     * de blocos são ignorados. A direção não precisa de estar normalizada.
+     */
+    public GameObject pick(VoxelWorld voxels, Vector3f origin, Vector3f direction, float maxDistance,
+            Predicate<GameObject> filter) {
+        float len = direction.length();
+        if (len == 0f)
+            return null;
+        float dx = direction.x / len, dy = direction.y / len, dz = direction.z / len;
+        float limit = maxDistance;
+        if (voxels != null && voxels.raycast(origin.x, origin.y, origin.z, dx, dy, dz, maxDistance, voxelHit))
+            limit = voxelHit.distance;
+
+        float ex = origin.x + dx * limit, ez = origin.z + dz * limit;
+        candidates.clear();
+        index.query(Math.min(origin.x, ex), Math.min(origin.z, ez), Math.max(origin.x, ex), Math.max(origin.z, ez),
+                candidates);
+
+        GameObject best = null;
+        float bestT = limit;
+        for (int i = 0; i < candidates.size(); i++) {
+            GameObject obj = candidates.get(i);
+            if (filter != null && !filter.test(obj))
+                continue;
+            float t = intersect(obj, origin, dx, dy, dz, bestT);
+            if (t >= 0f) {
+                best = obj;
+                bestT = t;
+            }
+        }
+        candidates.clear();
+        lastDistance = best != null ? bestT : Float.POSITIVE_INFINITY;
+        return best;
+    }
+
+    /** Distância ao objeto devolvido pelo último {@link #pick}. */
+    public float getLastDistance() {
+        return lastDistance;
+    }
+
+    // Distância de entrada do raio na caixa do objeto se <= maxT, senão -1 (método das slabs)
+    private float intersect(GameObject obj, Vector3f o, float dx, float dy, float dz, float maxT) {
+        Vec3 p = obj.getPosition();
+        float hw = obj.getHalfWidth();
+        float minY = p.y + obj.getBottomOffset();
+        slabMin = 0f;
+        slabMax = maxT;
+        if (!slab(o.x, dx, p.x - hw, p.x + hw) || !slab(o.y, dy, minY, minY + obj.getHeight())
+                || !slab(o.z, dz, p.z - hw, p.z + hw))
+            return -1f;
+        return slabMin;
+    }
+
+    // Estreita [slabMin, slabMax] com um eixo; false se o intervalo ficar vazio
+    private boolean slab(float origin, float dir, float lo, float hi) {
+        if (dir == 0f)
+            return origin >= lo && origin <= hi;
+        float t1 = (lo - origin) / dir, t2 = (hi - origin) / dir;
+        slabMin = Math.max(slabMin, Math.min(t1, t2));
+        slabMax = Math.min(slabMax, Math.max(t1, t2));
+        return slabMin <= slabMax;
+    }
+}
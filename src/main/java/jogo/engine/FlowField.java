@@ -0,0 +1,156 @@
+package jogo.engine;
+
+import jogo.framework.math.Vec3;
+import jogo.gameobject.capability.NavigationField;
+import jogo.voxel.VoxelWorld;
+
+import java.util.Arrays;
+
+/**
+ * Flow field sobre a superfície dos vóxeis numa janela quadrada em torno do
+ * alvo. Uma BFS a partir da coluna do alvo (8 vizinhos) dá a cada coluna a
+ * distância em passos até ele, e cada coluna guarda a direção do vizinho que a
+ * reduz. Os perseguidores só fazem uma consulta O(1), em vez de um caminho
+ * cada.
+ * <p>
+ * Uma coluna é andável se tiver bloco sólido no topo (fica-se de pé em top+1).
+ * Entre colunas vizinhas pode subir-se 1 bloco e descer-se 3; nas diagonais
+ * as duas colunas ortogonais também têm de ser atravessáveis (ver
+ * {@link SurfaceRules}). O campo é recalculado por {@link #update} quando o
+ * alvo muda de coluna ou quando a superfície mudou dentro da janela (avisado
+ * pelo {@link VoxelWorld}); fora disso não faz trabalho.
+ */
+public class FlowField implements NavigationField, VoxelWorld.SurfaceListener {
+    public static final int DEFAULT_RADIUS = 32;
+
+    private static final short BLOCKED = SurfaceRules.BLOCKED;
+    private static final byte NONE = -1;
+    private static final int[] DX = SurfaceRules.DX, DZ = SurfaceRules.DZ;
+    private static final float[] DIR_X = new float[8], DIR_Z = new float[8];
+
+    static {
+        for (int d = 0; d < 8; d++) {
+            float len = (float) Math.sqrt(DX[d] * DX[d] + DZ[d] * DZ[d]);
+            DIR_X[d] = DX[d] / len;
+            DIR_Z[d] = DZ[d] / len;
+        }
+    }
+
+    private final VoxelWorld world;
+    private final int radius, size;
+    private final short[] standY; // y de pé por coluna, ou BLOCKED
+    private final int[] distance; // passos até ao alvo, -1 se sem caminho
+    private final byte[] direction; // índice em DX/DZ, ou NONE
+    private final int[] queue;
+
+    private int originX, originZ; // coluna do canto mínimo da janela
+    private int targetX, targetZ;
+    private boolean valid, dirty;
+    private int rebuilds;
+
+    public FlowField(VoxelWorld world) {
+        this(world, DEFAULT_RADIUS);
+    }
+
+    public FlowField(VoxelWorld world, int radius) {
+        this.world = world;
+        this.radius = radius;
+        this.size = 2 * radius + 1;
+        this.standY = new short[size * size];
+        this.distance = new int[size * size];
+        this.direction = new byte[size * size];
+        this.queue = new int[size * size];
+        world.addSurfaceListener(this);
+    }
+
+    /** Deixa de seguir as mudanças de superfície do mundo. */
+    public void dispose() {
+        world.removeSurfaceListener(this);
+    }
+
+    /**
+     * Recalcula o campo se o alvo mudou de coluna ou a superfície mudou dentro
+     * da janela. Chamar no máximo uma vez por tick, antes das consultas, na
+     * thread que edita o mundo. Devolve true se recalculou.
+     */
+    public boolean update(float targetWorldX, float targetWorldZ) {
+        int tx = (int) Math.floor(targetWorldX), tz = (int) Math.floor(targetWorldZ);
+        if (valid && !dirty && tx == targetX && tz == targetZ)
+            return false;
+        rebuild(tx, tz);
+        return true;
+    }
+
+    @Override
+    public void surfaceChanged(int minX, int minZ, int maxX, int maxZ) {
+        if (maxX >= originX && minX < originX + size && maxZ >= originZ && minZ < originZ + size)
+            dirty = true;
+    }
+
+    @Override
+    public boolean sampleDirection(float x, float z, Vec3 out) {
+        if (!valid)
+            return false;
+        int lx = (int) Math.floor(x) - originX, lz = (int) Math.floor(z) - originZ;
+        if (lx < 0 || lz < 0 || lx >= size || lz >= size)
+            return false;
+        byte d = direction[lx * size + lz];
+        if (d == NONE)
+            return false;
+        out.set(DIR_X[d], 0f, DIR_Z[d]);
+        return true;
+    }
+
+    /** Passos até ao alvo a partir da coluna (x, z); -1 fora do campo ou sem caminho. */
+    public int distanceAt(int x, int z) {
+        int lx = x - originX, lz = z - originZ;
+        if (!valid || lx < 0 || lz < 0 || lx >= size || lz >= size)
+            return -1;
+        return distance[lx * size + lz];
+    }
+
+    /** Número de recálculos desde a criação. */
+    public int getRebuildCount() {
+        return rebuilds;
+    }
+
+    private void rebuild(int tx, int tz) {
+        targetX = tx;
+        targetZ = tz;
+        originX = tx - radius;
+        originZ = tz - radius;
+        for (int lx = 0; lx < size; lx++) {
+            for (int lz = 0; lz < size; lz++) {
+                standY[lx * size + lz] = SurfaceRules.standY(world.getTopSolidY(originX + lx, originZ + lz));
+            }
+        }
+        Arrays.fill(distance, -1);
+        Arrays.fill(direction, NONE);
+
+        // BFS a partir do alvo pelas arestas invertidas (de n para c)
+        int goal = radius * size + radius;
+        int head = 0, tail = 0;
+        if (standY[goal] != BLOCKED) {
+            distance[goal] = 0;
+            queue[tail++] = goal;
+        }
+        while (head < tail) {
+            int c = queue[head++];
+            int cx = c / size, cz = c % size;
+            for (int d = 0; d < 8; d++) {
+                int nx = cx - DX[d], nz = cz - DZ[d];
+                if (nx < 0 || nz < 0 || nx >= size || nz >= size)
+                    continue;
+                int n = nx * size + nz;
+                if (distance[n] >= 0 || !SurfaceRules.canMove(standY, size, nx, nz, d))
+                    continue;
+                distance[n] = distance[c] + 1;
+                direction[n] = (byte) d;
+                queue[tail++] = n;
+            }
+        }
+        valid = true;
+        dirty = false;
+        rebuilds++;
+    }
+}
@@ -1,26 +1,150 @@
 package jogo.engine;
 
 import jogo.gameobject.GameObject;
+import jogo.gameobject.capability.HasAI;
+import jogo.gameobject.character.Character;
+import jogo.gameobject.item.Item;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Registo dos objetos de jogo. As listas devolvidas são snapshots imutáveis
+ * publicados em copy-on-write: cada add/remove cria listas novas e as leituras
+ * (uma por frame em vários AppStates) devolvem a atual sem copiar nem alocar.
+ * Além da lista completa mantém vistas por tipo para evitar varrimentos com
+ * instanceof.
+ * <p>
+ * Os {@link Listener} são avisados de entradas, saídas e movimentos na thread
+ * que fez a alteração (no jogo, a de render).
+ */
 public class GameRegistry {
-    private final List<GameObject> objects = new ArrayList<>();
+    private final Set<GameObject> members = Collections.newSetFromMap(new IdentityHashMap<>());
+    private volatile List<GameObject> all = List.of();
+    private volatile List<HasAI> withAI = List.of();
+    private volatile List<Item> items = List.of();
+    private volatile List<Character> characters = List.of();
+    // Incrementada a cada mudança de membros
+    private volatile long version;
+    // Índice XZ dos objetos registados, atualizado a cada setPosition
+    private final SpatialGrid spatial = new SpatialGrid();
+    private volatile Listener[] listeners = new Listener[0];
+
+    /** Eventos do registo: objetos que entram, saem ou mudam de posição. */
+    public interface Listener {
+        void added(GameObject obj);
+
+        void removed(GameObject obj);
+
+        void moved(GameObject obj);
+    }
 
     public synchronized void add(GameObject obj) {
-        if (obj != null && !objects.contains(obj)) {
-            objects.add(obj);
-        }
+        if (obj == null || !members.add(obj))
+            return;
+        all = with(all, obj);
+        if (obj instanceof HasAI ai)
+            withAI = with(withAI, ai);
+        if (obj instanceof Item item)
+            items = with(items, item);
+        if (obj instanceof Character character)
+            characters = with(characters, character);
+        spatial.insert(obj);
+        obj.setPositionListener(this::positionChanged);
+        version++;
+        for (Listener l : listeners)
+            l.added(obj);
     }
 
     public synchronized void remove(GameObject obj) {
-        objects.remove(obj);
+        if (obj == null || !members.remove(obj))
+            return;
+        all = without(all, obj);
+        if (obj instanceof HasAI)
+            withAI = without(withAI, obj);
+        if (obj instanceof Item)
+            items = without(items, obj);
+        if (obj instanceof Character)
+            characters = without(characters, obj);
+        obj.setPositionListener(null);
+        spatial.remove(obj);
+        version++;
+        for (Listener l : listeners)
+            l.removed(obj);
     }
 
-    public synchronized List<GameObject> getAll() {
-        return Collections.unmodifiableList(new ArrayList<>(objects));
+    private void positionChanged(GameObject obj) {
+        spatial.update(obj);
+        for (Listener l : listeners)
+            l.moved(obj);
+    }
+
+    public synchronized void addListener(Listener listener) {
+        Listener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        listeners = copy;
     }
-}
 
+    public synchronized void removeListener(Listener listener) {
+        Listener[] copy = new Listener[listeners.length];
+        int n = 0;
+        for (Listener l : listeners)
+            if (l != listener)
+                copy[n++] = l;
+        listeners = Arrays.copyOf(copy, n);
+    }
+
+    public synchronized boolean contains(GameObject obj) {
+        return members.contains(obj);
+    }
+
+    /** Todos os objetos, pela ordem de registo. Snapshot imutável; não copia. */
+    public List<GameObject> getAll() {
+        return all;
+    }
+
+    /** Objetos com IA ({@link HasAI}). */
+    public List<HasAI> getAIObjects() {
+        return withAI;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public List<Character> getCharacters() {
+        return characters;
+    }
+
+    /** Muda sempre que um objeto é adicionado ou removido. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Índice espacial dos objetos registados. */
+    public SpatialGrid getSpatialIndex() {
+        return spatial;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> with(List<T> list, T obj) {
+        Object[] copy = list.toArray(new Object[list.size() + 1]);
+        copy[list.size()] = obj;
+        return (List<T>) Collections.unmodifiableList(Arrays.asList(copy));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> without(List<T> list, Object obj) {
+        Object[] copy = new Object[list.size()];
+        int n = 0;
+        for (int i = 0; i < list.size(); i++) {
+            T e = list.get(i);
+            if (e != obj)
+                copy[n++] = e;
+        }
+        return (List<T>) Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(copy, n)));
+    }
+}
@@ -0,0 +1,631 @@
+package jogo.engine;
+
+import jogo.gameobject.capability.PathRequest;
+import jogo.gameobject.capability.PathService;
+import jogo.voxel.Chunk;
+import jogo.voxel.VoxelWorld;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pathfinding hierárquico (estilo HPA*) sobre a superfície do {@link VoxelWorld}.
+ * <p>
+ * O mundo é dividido em clusters do tamanho de uma coluna de chunks. Cada
+ * cluster guarda os seus portais (o meio de cada troço de fronteira
+ * atravessável para o cluster vizinho) e o custo entre portais dentro dele.
+ * Os clusters ficam em cache e só são refeitos quando a superfície muda: o
+ * {@link #update()} da thread de render copia as alturas dos clusters sujos e
+ * o grafo é construído no pool de trabalho.
+ * <p>
+ * Os pedidos ({@link #requestPath}) também correm no pool: A* sobre o grafo de
+ * portais e depois refinamento de cada troço por BFS dentro do cluster. As
+ * regras de movimento são as do {@link FlowField} ({@link SurfaceRules}).
+ * <p>
+ * O trabalho no pool só fica visível nas fronteiras de tick: os pedidos de um
+ * tick seguem para o pool no {@link #flush()} e os grafos novos e os
+ * resultados são publicados juntos no {@link #update()} seguinte, depois de
+ * esperar por eles. Entre duas chamadas a update() o grafo não muda, pelo que
+ * o resultado de cada pedido e o tick em que aparece não dependem do
+ * escalonamento das threads.
+ */
+public final class HierarchicalPathfinder implements PathService, VoxelWorld.SurfaceListener {
+    // Lado de um cluster em colunas; a vista inclui um anel de 1 coluna dos vizinhos
+    private static final int SIZE = Chunk.SIZE;
+    private static final int VIEW = SIZE + 2;
+    // Clusters copiados por update() (o resto fica para o frame seguinte)
+    private static final int MAX_SNAPSHOTS_PER_UPDATE = 64;
+    // Nós abertos no A* antes de desistir
+    private static final int MAX_EXPANDED = 1 << 16;
+
+    private static final int[] DX = SurfaceRules.DX, DZ = SurfaceRules.DZ;
+    // Direção oposta de cada uma das 8
+    private static final int[] OPP = { 1, 0, 3, 2, 7, 6, 5, 4 };
+    private static final short BLOCKED = SurfaceRules.BLOCKED;
+    private static final long GOAL = Long.MIN_VALUE;
+
+    private final VoxelWorld world;
+    private final ExecutorService pool;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    // Pedidos ainda não entregues ao pool (feitos de qualquer thread durante a decisão)
+    private final Queue<PathHandle> requested = new ConcurrentLinkedQueue<>();
+    // Grafos publicados (lidos pelos pedidos) e carimbo da última cópia de cada cluster;
+    // só mudam em update(), quando não há pedidos a correr
+    private final Map<Long, Cluster> clusters = new HashMap<>();
+    private final Map<Long, Long> latest = new HashMap<>();
+    // Só na thread de render
+    private final Set<Long> dirty = new LinkedHashSet<>();
+    private final List<PathHandle> running = new ArrayList<>();
+    private final List<Build> building = new ArrayList<>();
+    private long nextStamp;
+    private int rebuilds;
+
+    // Memória de trabalho do BFS, uma por thread do pool
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    public HierarchicalPathfinder(VoxelWorld world) {
+        this(world, defaultThreadCount());
+    }
+
+    public HierarchicalPathfinder(VoxelWorld world, int threads) {
+        this.world = world;
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "path-finder-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        world.addSurfaceListener(this);
+        world.replaySurface(this);
+    }
+
+    public static int defaultThreadCount() {
+        return Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /** Deixa de ouvir o mundo e pára o pool; os pedidos pendentes não terminam. */
+    public void dispose() {
+        world.removeSurfaceListener(this);
+        pool.shutdownNow();
+    }
+
+    @Override
+    public void surfaceChanged(int minX, int minZ, int maxX, int maxZ) {
+        // Os portais de um cluster dependem da coluna de fronteira dos vizinhos
+        int c0x = Math.floorDiv(minX - 1, SIZE), c1x = Math.floorDiv(maxX + 1, SIZE);
+        int c0z = Math.floorDiv(minZ - 1, SIZE), c1z = Math.floorDiv(maxZ + 1, SIZE);
+        for (int cx = c0x; cx <= c1x; cx++)
+            for (int cz = c0z; cz <= c1z; cz++)
+                dirty.add(key(cx, cz));
+    }
+
+    /**
+     * Fronteira de tick: espera pelos pedidos do último {@link #flush()} e pelos
+     * grafos do último update() e publica-os; depois copia as alturas dos
+     * clusters sujos (até MAX_SNAPSHOTS_PER_UPDATE) e manda construir os grafos
+     * no pool. Chamar uma vez por tick na thread de render, antes da decisão.
+     */
+    public void update() {
+        // Os pedidos correram todos contra o grafo publicado no update anterior
+        for (PathHandle h : running)
+            h.finish(await(h.job));
+        running.clear();
+        for (Build b : building) {
+            Cluster built = await(b.cluster);
+            // Só publica se entretanto não houver uma cópia mais recente
+            Long l = latest.get(b.key);
+            if (built != null && l != null && l == b.stamp) {
+                clusters.put(b.key, built);
+                rebuilds++;
+            }
+        }
+        building.clear();
+
+        Iterator<Long> it = dirty.iterator();
+        for (int n = 0; n < MAX_SNAPSHOTS_PER_UPDATE && it.hasNext(); n++) {
+            long key = it.next();
+            it.remove();
+            snapshot(key);
+        }
+    }
+
+    private void snapshot(long key) {
+        int cx = (int) (key >> 32), cz = (int) key;
+        int x0 = cx * SIZE, z0 = cz * SIZE;
+        short[] standY = new short[VIEW * VIEW];
+        boolean any = false;
+        for (int vx = 0; vx < VIEW; vx++) {
+            for (int vz = 0; vz < VIEW; vz++) {
+                short y = SurfaceRules.standY(world.getTopSolidY(x0 + vx - 1, z0 + vz - 1));
+                standY[vx * VIEW + vz] = y;
+                if (y != BLOCKED && vx > 0 && vz > 0 && vx <= SIZE && vz <= SIZE)
+                    any = true;
+            }
+        }
+        if (!any) {
+            // Coluna descarregada (ou sem chão): sai do grafo
+            latest.remove(key);
+            clusters.remove(key);
+            return;
+        }
+        long stamp = ++nextStamp;
+        latest.put(key, stamp);
+        building.add(new Build(key, stamp, pool.submit(() -> new Cluster(cx, cz, standY))));
+    }
+
+    /** Só põe o pedido em fila; segue para o pool no próximo {@link #flush()}. */
+    @Override
+    public PathRequest requestPath(float fromX, float fromZ, float toX, float toZ) {
+        PathHandle h = new PathHandle((int) Math.floor(fromX), (int) Math.floor(fromZ),
+                (int) Math.floor(toX), (int) Math.floor(toZ));
+        if (pool.isShutdown())
+            h.finish(null);
+        else
+            requested.add(h);
+        return h;
+    }
+
+    /**
+     * Entrega ao pool os pedidos feitos desde a última chamada; os resultados
+     * ficam visíveis no próximo {@link #update()}. Chamar na thread de render
+     * no fim do tick, depois da decisão. A ordem de entrega não muda os
+     * resultados: até ao update() todos veem o mesmo grafo.
+     */
+    public void flush() {
+        for (PathHandle h; (h = requested.poll()) != null;) {
+            if (!h.cancelled && !pool.isShutdown()) {
+                PathHandle req = h;
+                h.job = pool.submit(() -> req.cancelled ? null : solve(req.fromX, req.fromZ, req.toX, req.toZ, req));
+            }
+            running.add(h);
+        }
+    }
+
+    // Resultado do trabalho no pool, ou null se falhou ou foi cancelado
+    private static <T> T await(Future<T> job) {
+        if (job == null)
+            return null;
+        try {
+            return job.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel(true);
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    /** Clusters com grafo publicado. */
+    public int getClusterCount() {
+        return clusters.size();
+    }
+
+    /** Grafos de cluster construídos desde o início. */
+    public int getRebuildCount() {
+        return rebuilds;
+    }
+
+    /** Clusters à espera de ser copiados por update(). */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    // --- Pedidos (threads do pool) ---
+
+    // Nó do A*: um portal de um cluster, ou o destino
+    private static final class Rec {
+        final Cluster cluster;
+        final int node;
+        int g = Integer.MAX_VALUE;
+        Rec parent;
+        boolean closed;
+
+        Rec(Cluster cluster, int node) {
+            this.cluster = cluster;
+            this.node = node;
+        }
+    }
+
+    private record Open(Rec rec, int f) {
+    }
+
+    // Caminho de (sx, sz) a (gx, gz) em colunas, ou null
+    private int[] solve(int sx, int sz, int gx, int gz, PathHandle h) {
+        Cluster start = clusters.get(key(Math.floorDiv(sx, SIZE), Math.floorDiv(sz, SIZE)));
+        Cluster goal = clusters.get(key(Math.floorDiv(gx, SIZE), Math.floorDiv(gz, SIZE)));
+        if (start == null || goal == null)
+            return null;
+        int sl = start.local(sx, sz), gl = goal.local(gx, gz);
+        if (start.stand(sl) == BLOCKED || goal.stand(gl) == BLOCKED)
+            return null;
+        PathBuilder path = new PathBuilder();
+        path.add(sx, sz);
+        if (start == goal && refine(start, sl, gl, path))
+            return path.toArray();
+
+        Scratch s = SCRATCH.get();
+        int[] startCost = new int[start.nodeCount()];
+        s.bfs(start, sl, false);
+        for (int i = 0; i < startCost.length; i++)
+            startCost[i] = s.dist[start.nodeLocal(i)];
+        int[] goalCost = new int[goal.nodeCount()];
+        s.bfs(goal, gl, true);
+        for (int i = 0; i < goalCost.length; i++)
+            goalCost[i] = s.dist[goal.nodeLocal(i)];
+
+        Map<Long, Rec> recs = new HashMap<>();
+        PriorityQueue<Open> open = new PriorityQueue<>((a, b) -> Integer.compare(a.f, b.f));
+        Rec goalRec = new Rec(goal, -1);
+        recs.put(GOAL, goalRec);
+        for (int i = 0; i < startCost.length; i++)
+            if (startCost[i] >= 0)
+                relax(recs, open, null, start, i, startCost[i], gx, gz);
+
+        int expanded = 0;
+        while (!open.isEmpty()) {
+            Rec r = open.poll().rec;
+            if (r.closed)
+                continue;
+            r.closed = true;
+            if (r == goalRec)
+                break;
+            if (++expanded > MAX_EXPANDED || h.cancelled)
+                return null;
+            Cluster c = r.cluster;
+            int n = c.nodeCount();
+            for (int j = 0; j < n; j++) {
+                int cost = c.cost[r.node * n + j];
+                if (cost > 0)
+                    relax(recs, open, r, c, j, r.g + cost, gx, gz);
+            }
+            if (c == goal && goalCost[r.node] >= 0 && r.g + goalCost[r.node] < goalRec.g) {
+                goalRec.g = r.g + goalCost[r.node];
+                goalRec.parent = r;
+                open.add(new Open(goalRec, goalRec.g));
+            }
+            // Travessias para os clusters vizinhos (só ortogonais)
+            int wx = c.worldX(r.node), wz = c.worldZ(r.node);
+            for (int d = 0; d < 4; d++) {
+                if ((c.crossMask[r.node] & (1 << d)) == 0)
+                    continue;
+                int tx = wx + DX[d], tz = wz + DZ[d];
+                Cluster other = clusters.get(key(Math.floorDiv(tx, SIZE), Math.floorDiv(tz, SIZE)));
+                int j = other != null ? other.nodeAt(tx, tz) : -1;
+                if (j >= 0)
+                    relax(recs, open, r, other, j, r.g + 1, gx, gz);
+            }
+        }
+        if (goalRec.parent == null)
+            return null;
+
+        // Portais do início ao fim e refinamento de cada troço
+        List<Rec> chain = new ArrayList<>();
+        for (Rec r = goalRec.parent; r != null; r = r.parent)
+            chain.add(r);
+        Cluster at = start;
+        int atLocal = sl;
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            Rec r = chain.get(i);
+            int to = r.cluster.nodeLocal(r.node);
+            if (r.cluster == at) {
+                if (!refine(at, atLocal, to, path))
+                    return null;
+            } else {
+                path.add(r.cluster.worldX(r.node), r.cluster.worldZ(r.node));
+            }
+            at = r.cluster;
+            atLocal = to;
+        }
+        return refine(goal, atLocal, gl, path) ? path.toArray() : null;
+    }
+
+    private static void relax(Map<Long, Rec> recs, PriorityQueue<Open> open, Rec from, Cluster c, int node,
+            int g, int gx, int gz) {
+        int wx = c.worldX(node), wz = c.worldZ(node);
+        long k = key(wx, wz);
+        Rec r = recs.get(k);
+        if (r == null) {
+            r = new Rec(c, node);
+            recs.put(k, r);
+        }
+        if (r.closed || g >= r.g)
+            return;
+        r.g = g;
+        r.parent = from;
+        // Heurística: distância de Chebyshev (as diagonais custam 1, como no BFS)
+        int hx = Math.abs(gx - wx), hz = Math.abs(gz - wz);
+        open.add(new Open(r, g + Math.max(hx, hz)));
+    }
+
+    // Junta a path as colunas de from (exclusive) a to (inclusive) dentro do cluster
+    private static boolean refine(Cluster c, int from, int to, PathBuilder path) {
+        if (from == to)
+            return true;
+        Scratch s = SCRATCH.get();
+        s.bfs(c, from, false);
+        if (s.dist[to] < 0)
+            return false;
+        int n = s.dist[to];
+        int base = path.size;
+        path.grow(n);
+        for (int cell = to, i = n - 1; i >= 0; i--, cell = s.parent[cell])
+            path.set(base + i, c.x0 + cell / SIZE, c.z0 + cell % SIZE);
+        return true;
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    // Grafo em construção no pool, com o carimbo da cópia de que partiu
+    private record Build(long key, long stamp, Future<Cluster> cluster) {
+    }
+
+    // --- Grafo de um cluster (imutável depois de construído) ---
+
+    private static final class Cluster {
+        final int x0, z0;
+        // Alturas de pé da vista (cluster + anel), índice vx * VIEW + vz
+        final short[] standY;
+        // Portais: coluna local (lx * SIZE + lz) e lados (bits 0..3) por onde se sai para o vizinho
+        final int[] nodes;
+        final byte[] crossMask;
+        // Custo entre portais dentro do cluster (n * n, -1 = sem caminho)
+        final int[] cost;
+
+        Cluster(int cx, int cz, short[] standY) {
+            this.x0 = cx * SIZE;
+            this.z0 = cz * SIZE;
+            this.standY = standY;
+            List<Integer> found = new ArrayList<>();
+            List<Integer> masks = new ArrayList<>();
+            for (int d = 0; d < 4; d++)
+                findPortals(d, found, masks);
+            nodes = new int[found.size()];
+            crossMask = new byte[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = found.get(i);
+                crossMask[i] = (byte) (int) masks.get(i);
+            }
+            int n = nodes.length;
+            cost = new int[n * n];
+            Scratch s = SCRATCH.get();
+            for (int i = 0; i < n; i++) {
+                s.bfs(this, nodes[i], false);
+                for (int j = 0; j < n; j++)
+                    cost[i * n + j] = s.dist[nodes[j]];
+            }
+        }
+
+        // Troços atravessáveis (em qualquer sentido) da fronteira do lado d; um portal no meio de cada
+        private void findPortals(int d, List<Integer> found, List<Integer> masks) {
+            int runStart = -1;
+            for (int t = 0; t <= SIZE; t++) {
+                boolean open = t < SIZE && crossable(d, t);
+                if (open && runStart < 0)
+                    runStart = t;
+                if (!open && runStart >= 0) {
+                    int local = borderLocal(d, (runStart + t - 1) / 2);
+                    int bit = 1 << d;
+                    int i = found.indexOf(local);
+                    // O sentido de saída só existe se o passo para o vizinho for permitido
+                    int lx = local / SIZE, lz = local % SIZE;
+                    boolean out = SurfaceRules.canStep(standY[view(lx, lz)], standY[view(lx + DX[d], lz + DZ[d])]);
+                    if (i < 0) {
+                        found.add(local);
+                        masks.add(out ? bit : 0);
+                    } else if (out) {
+                        masks.set(i, masks.get(i) | bit);
+                    }
+                    runStart = -1;
+                }
+            }
+        }
+
+        private boolean crossable(int d, int t) {
+            int local = borderLocal(d, t);
+            int lx = local / SIZE, lz = local % SIZE;
+            short a = standY[view(lx, lz)], b = standY[view(lx + DX[d], lz + DZ[d])];
+            return SurfaceRules.canStep(a, b) || SurfaceRules.canStep(b, a);
+        }
+
+        // t-ésima coluna da fronteira do lado d (0: x+, 1: x-, 2: z+, 3: z-)
+        private static int borderLocal(int d, int t) {
+            switch (d) {
+                case 0:
+                    return (SIZE - 1) * SIZE + t;
+                case 1:
+                    return t;
+                case 2:
+                    return t * SIZE + SIZE - 1;
+                default:
+                    return t * SIZE;
+            }
+        }
+
+        private static int view(int lx, int lz) {
+            return (lx + 1) * VIEW + lz + 1;
+        }
+
+        short stand(int local) {
+            return standY[view(local / SIZE, local % SIZE)];
+        }
+
+        int local(int x, int z) {
+            return (x - x0) * SIZE + (z - z0);
+        }
+
+        int nodeCount() {
+            return nodes.length;
+        }
+
+        int nodeLocal(int i) {
+            return nodes[i];
+        }
+
+        int worldX(int i) {
+            return x0 + nodes[i] / SIZE;
+        }
+
+        int worldZ(int i) {
+            return z0 + nodes[i] % SIZE;
+        }
+
+        // Portal na coluna do mundo (x, z), ou -1
+        int nodeAt(int x, int z) {
+            int local = local(x, z);
+            for (int i = 0; i < nodes.length; i++)
+                if (nodes[i] == local)
+                    return i;
+            return -1;
+        }
+
+        // Movimento dentro do cluster da coluna local cell na direção d
+        boolean canMove(int cell, int d) {
+            int lx = cell / SIZE + DX[d], lz = cell % SIZE + DZ[d];
+            if (lx < 0 || lz < 0 || lx >= SIZE || lz >= SIZE)
+                return false;
+            return SurfaceRules.canMove(standY, VIEW, cell / SIZE + 1, cell % SIZE + 1, d);
+        }
+    }
+
+    // BFS dentro de um cluster; reverse percorre as arestas ao contrário (distâncias até à origem)
+    private static final class Scratch {
+        final int[] dist = new int[SIZE * SIZE];
+        final int[] parent = new int[SIZE * SIZE];
+        final int[] queue = new int[SIZE * SIZE];
+
+        void bfs(Cluster c, int origin, boolean reverse) {
+            Arrays.fill(dist, -1);
+            int head = 0, tail = 0;
+            dist[origin] = 0;
+            parent[origin] = -1;
+            queue[tail++] = origin;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell / SIZE, z = cell % SIZE;
+                for (int d = 0; d < 8; d++) {
+                    int nx = x + DX[d], nz = z + DZ[d];
+                    if (nx < 0 || nz < 0 || nx >= SIZE || nz >= SIZE)
+                        continue;
+                    int next = nx * SIZE + nz;
+                    if (dist[next] >= 0)
+                        continue;
+                    if (reverse ? !c.canMove(next, OPP[d]) : !c.canMove(cell, d))
+                        continue;
+                    dist[next] = dist[cell] + 1;
+                    parent[next] = cell;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    // Lista de colunas (x, z) que cresce conforme o caminho é refinado
+    private static final class PathBuilder {
+        int[] xs = new int[64], zs = new int[64];
+        int size;
+
+        void add(int x, int z) {
+            grow(1);
+            set(size - 1, x, z);
+        }
+
+        void grow(int n) {
+            if (size + n > xs.length) {
+                int cap = Math.max(xs.length * 2, size + n);
+                xs = Arrays.copyOf(xs, cap);
+                zs = Arrays.copyOf(zs, cap);
+            }
+            size += n;
+        }
+
+        void set(int i, int x, int z) {
+            xs[i] = x;
+            zs[i] = z;
+        }
+
+        // Intercalado: x0, z0, x1, z1, ...
+        int[] toArray() {
+            int[] out = new int[size * 2];
+            for (int i = 0; i < size; i++) {
+                out[2 * i] = xs[i];
+                out[2 * i + 1] = zs[i];
+            }
+            return out;
+        }
+    }
+
+    // --- Pedido devolvido aos agentes ---
+
+    private static final class PathHandle implements PathRequest {
+        private static final int[] NONE = new int[0];
+        final int fromX, fromZ, toX, toZ;
+        volatile boolean cancelled;
+        // Cálculo no pool (null se não chegou a ser entregue); só na thread de render
+        Future<int[]> job;
+        // Escrito antes de done (volatile), lido depois
+        private int[] columns = NONE;
+        private volatile boolean done;
+
+        PathHandle(int fromX, int fromZ, int toX, int toZ) {
+            this.fromX = fromX;
+            this.fromZ = fromZ;
+            this.toX = toX;
+            this.toZ = toZ;
+        }
+
+        void finish(int[] path) {
+            if (path != null && !cancelled)
+                columns = path;
+            done = true;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public boolean isFound() {
+            return done && columns.length > 0;
+        }
+
+        @Override
+        public int size() {
+            return done ? columns.length / 2 : 0;
+        }
+
+        @Override
+        public float getX(int index) {
+            return columns[2 * index] + 0.5f;
+        }
+
+        @Override
+        public float getZ(int index) {
+            return columns[2 * index + 1] + 0.5f;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
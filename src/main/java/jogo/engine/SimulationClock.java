@@ -0,0 +1,132 @@
+package jogo.engine;
+
+import java.util.Arrays;
+
+/**
+ * Relógio de simulação com passo fixo. Cada frame acumula o tpf e corre os
+ * ticks (de {@link #getStep()} segundos) que couberem, até um máximo por
+ * frame; o atraso acima disso é descartado para o jogo não entrar em espiral
+ * quando está sobrecarregado. A lógica avança assim sempre com o mesmo dt,
+ * independentemente do FPS, e o render interpola entre os dois últimos ticks
+ * com {@link #getAlpha()}.
+ */
+public final class SimulationClock {
+    public static final float DEFAULT_HZ = 30f;
+    public static final int DEFAULT_MAX_STEPS = 5;
+
+    /** Avisado a cada tick, pela ordem de registo. */
+    public interface Listener {
+        void tick(float dt);
+    }
+
+    private final double step;
+    private int maxSteps = DEFAULT_MAX_STEPS;
+    private Listener[] listeners = new Listener[0];
+    // Em double para o tempo somado ao longo de muitos frames não derivar
+    private double accumulator;
+    private long tick;
+    private boolean ticking;
+    private int lastSteps;
+    private long droppedTicks;
+
+    public SimulationClock() {
+        this(DEFAULT_HZ);
+    }
+
+    /** @param hz ticks por segundo (ex.: 20 ou 30) */
+    public SimulationClock(float hz) {
+        if (hz <= 0f)
+            throw new IllegalArgumentException("Frequência inválida: " + hz);
+        this.step = 1.0 / hz;
+    }
+
+    public void addListener(Listener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public void removeListener(Listener listener) {
+        Listener[] copy = new Listener[listeners.length];
+        int n = 0;
+        for (Listener l : listeners)
+            if (l != listener)
+                copy[n++] = l;
+        listeners = Arrays.copyOf(copy, n);
+    }
+
+    /**
+     * Avança o tempo de um frame e corre os ticks devidos (no máximo
+     * {@link #getMaxStepsPerFrame()}). Devolve quantos correram.
+     */
+    public int advance(float tpf) {
+        accumulator += Math.max(0f, tpf);
+        int n = 0;
+        while (accumulator >= step && n < maxSteps) {
+            runTick();
+            accumulator -= step;
+            n++;
+        }
+        if (accumulator >= step) {
+            // Atraso além do limite: descartar os ticks inteiros e ficar com a fração
+            long behind = (long) (accumulator / step);
+            droppedTicks += behind;
+            accumulator -= behind * step;
+        }
+        lastSteps = n;
+        return n;
+    }
+
+    /** Corre um tick de imediato, sem mexer no acumulador (simulação sem render). */
+    public void step() {
+        runTick();
+    }
+
+    private void runTick() {
+        ticking = true;
+        try {
+            for (Listener l : listeners)
+                l.tick((float) step);
+        } finally {
+            ticking = false;
+        }
+        tick++;
+    }
+
+    /** Duração de um tick em segundos. */
+    public float getStep() {
+        return (float) step;
+    }
+
+    /** Ticks completos desde o início; durante um tick é o número desse tick. */
+    public long getTick() {
+        return tick;
+    }
+
+    /** Está a correr um tick (os listeners estão a ser chamados). */
+    public boolean isTicking() {
+        return ticking;
+    }
+
+    /** Fração [0, 1) do próximo tick já acumulada, para interpolar o render. */
+    public float getAlpha() {
+        return (float) (accumulator / step);
+    }
+
+    public int getMaxStepsPerFrame() {
+        return maxSteps;
+    }
+
+    public void setMaxStepsPerFrame(int maxSteps) {
+        this.maxSteps = Math.max(1, maxSteps);
+    }
+
+    /** Ticks corridos no último advance. */
+    public int getLastSteps() {
+        return lastSteps;
+    }
+
+    /** Ticks descartados por excederem o limite por frame. */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+}
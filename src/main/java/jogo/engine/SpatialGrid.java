@@ -0,0 +1,182 @@
+package jogo.engine;
+
+import jogo.framework.math.Vec3;
+import jogo.gameobject.GameObject;
+import jogo.gameobject.capability.NeighborQuery;
+import jogo.util.LongMap;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice espacial em grelha uniforme no plano XZ. Cada objeto fica na célula
+ * da sua posição; as consultas percorrem só as células que tocam a região
+ * pedida, pelo que o custo depende dos objetos próximos e não do total.
+ * Mantido pelo {@link GameRegistry}.
+ */
+public class SpatialGrid implements NeighborQuery {
+    /** Lado das células em unidades do mundo. */
+    public static final float DEFAULT_CELL_SIZE = 4f;
+
+    private final float cellSize;
+    private final LongMap<Cell> cells = new LongMap<>();
+    private final Map<GameObject, Cell> cellOf = new IdentityHashMap<>();
+    // Maior meia-largura registada: os objetos podem sair da sua célula até esta margem
+    private float maxHalfWidth;
+    // Consultas partilham o lock de leitura (a IA consulta em paralelo); mudanças usam o de escrita
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    private static final class Cell {
+        final long key;
+        final ArrayList<GameObject> objects = new ArrayList<>(4);
+
+        Cell(long key) {
+            this.key = key;
+        }
+    }
+
+    public SpatialGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialGrid(float cellSize) {
+        if (cellSize <= 0f)
+            throw new IllegalArgumentException("cellSize must be positive");
+        this.cellSize = cellSize;
+    }
+
+    public void insert(GameObject obj) {
+        writeLock.lock();
+        try {
+            if (cellOf.containsKey(obj))
+                return;
+            Vec3 p = obj.getPosition();
+            Cell cell = cellFor(key(cell(p.x), cell(p.z)));
+            cell.objects.add(obj);
+            cellOf.put(obj, cell);
+            maxHalfWidth = Math.max(maxHalfWidth, obj.getHalfWidth());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(GameObject obj) {
+        writeLock.lock();
+        try {
+            Cell cell = cellOf.remove(obj);
+            if (cell != null)
+                leave(cell, obj);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Move o objeto para a célula da posição atual, se mudou de célula. */
+    public void update(GameObject obj) {
+        writeLock.lock();
+        try {
+            Cell cell = cellOf.get(obj);
+            if (cell == null)
+                return;
+            Vec3 p = obj.getPosition();
+            long key = key(cell(p.x), cell(p.z));
+            if (cell.key == key)
+                return;
+            leave(cell, obj);
+            Cell target = cellFor(key);
+            target.objects.add(obj);
+            cellOf.put(obj, target);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        readLock.lock();
+        try {
+            return cellOf.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Acrescenta a {@code out} os objetos cuja caixa pode tocar o retângulo XZ
+     * dado. É um filtro largo: o chamador faz o teste exato.
+     */
+    public void query(float minX, float minZ, float maxX, float maxZ, List<GameObject> out) {
+        readLock.lock();
+        try {
+            int cx0 = cell(minX - maxHalfWidth), cx1 = cell(maxX + maxHalfWidth);
+            int cz0 = cell(minZ - maxHalfWidth), cz1 = cell(maxZ + maxHalfWidth);
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int cz = cz0; cz <= cz1; cz++) {
+                    Cell cell = cells.get(key(cx, cz));
+                    if (cell != null)
+                        out.addAll(cell.objects);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void queryRadius(float x, float z, float radius, List<GameObject> out) {
+        readLock.lock();
+        try {
+            float r2 = radius * radius;
+            int cx0 = cell(x - radius), cx1 = cell(x + radius);
+            int cz0 = cell(z - radius), cz1 = cell(z + radius);
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int cz = cz0; cz <= cz1; cz++) {
+                    Cell cell = cells.get(key(cx, cz));
+                    if (cell == null)
+                        continue;
+                    for (int i = 0; i < cell.objects.size(); i++) {
+                        GameObject obj = cell.objects.get(i);
+                        if (distance2(obj, x, z) <= r2)
+                            out.add(obj);
+                    }
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private static float distance2(GameObject obj, float x, float z) {
+        Vec3 p = obj.getPosition();
+        float dx = p.x - x, dz = p.z - z;
+        return dx * dx + dz * dz;
+    }
+
+    private void leave(Cell cell, GameObject obj) {
+        cell.objects.remove(obj);
+        if (cell.objects.isEmpty())
+            cells.remove(cell.key);
+    }
+
+    private Cell cellFor(long key) {
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell(key);
+            cells.put(key, cell);
+        }
+        return cell;
+    }
+
+    private int cell(float v) {
+        return (int) Math.floor(v / cellSize);
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
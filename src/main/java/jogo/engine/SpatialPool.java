@@ -0,0 +1,100 @@
+package jogo.engine;
+
+import com.jme3.scene.Spatial;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Pool de spatials por tipo de modelo (ex.: skin de inimigo, caixa de item).
+ * Os spatials largados voltam ao pool do seu tipo e são reutilizados no
+ * próximo acquire, para que ondas de spawns não criem malhas, materiais nem
+ * carreguem assets. Cada tipo tem um pré-aquecimento (criados logo no define)
+ * e um máximo de livres guardados; acima disso os largados são descartados.
+ * Só para a thread de render.
+ */
+public final class SpatialPool {
+    private final Map<String, Kind> kinds = new HashMap<>();
+
+    private static final class Kind {
+        final Supplier<? extends Spatial> factory;
+        final ArrayDeque<Spatial> free = new ArrayDeque<>();
+        int maxFree;
+        int created;
+
+        Kind(Supplier<? extends Spatial> factory) {
+            this.factory = factory;
+        }
+    }
+
+    /**
+     * Define (ou redefine os limites de) um tipo de modelo.
+     *
+     * @param prewarm spatials a criar já, se ainda houver menos livres
+     * @param maxFree máximo de spatials livres guardados
+     */
+    public void define(String kind, Supplier<? extends Spatial> factory, int prewarm, int maxFree) {
+        Kind k = kinds.computeIfAbsent(kind, key -> new Kind(factory));
+        k.maxFree = Math.max(0, maxFree);
+        while (k.free.size() > k.maxFree)
+            k.free.poll();
+        int target = Math.min(Math.max(0, prewarm), k.maxFree);
+        while (k.free.size() < target) {
+            k.free.push(k.factory.get());
+            k.created++;
+        }
+    }
+
+    public boolean isDefined(String kind) {
+        return kinds.containsKey(kind);
+    }
+
+    /** Spatial livre do tipo, ou um novo se o pool estiver vazio. */
+    public Spatial acquire(String kind) {
+        Kind k = kind(kind);
+        Spatial s = k.free.poll();
+        if (s == null) {
+            s = k.factory.get();
+            k.created++;
+        }
+        return s;
+    }
+
+    /**
+     * Devolve um spatial já desligado da cena ao pool. Devolve false se o pool
+     * estiver cheio (o spatial é descartado).
+     */
+    public boolean release(String kind, Spatial s) {
+        Kind k = kind(kind);
+        if (k.free.size() >= k.maxFree)
+            return false;
+        k.free.push(s);
+        return true;
+    }
+
+    /** Spatials livres do tipo. */
+    public int getFreeCount(String kind) {
+        Kind k = kinds.get(kind);
+        return k != null ? k.free.size() : 0;
+    }
+
+    /** Spatials criados pela fábrica do tipo desde o início (pré-aquecidos incluídos). */
+    public int getCreatedCount(String kind) {
+        Kind k = kinds.get(kind);
+        return k != null ? k.created : 0;
+    }
+
+    /** Esquece todos os tipos e spatials livres. */
+    public void clear() {
+        kinds.clear();
+    }
+
+    private Kind kind(String kind) {
+        Kind k = kinds.get(kind);
+        if (k == null)
+            throw new IllegalArgumentException("Tipo de modelo sem pool: " + kind);
+        return k;
+    }
+}
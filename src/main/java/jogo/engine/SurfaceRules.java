@@ -0,0 +1,50 @@
+package jogo.engine;
+
+/**
+ * Regras de movimento sobre a superfície dos vóxeis, partilhadas pelo
+ * {@link FlowField} e pelo {@link HierarchicalPathfinder}. Cada coluna tem um
+ * y de pé (topo sólido + 1) ou {@link #BLOCKED} se não tiver chão.
+ */
+final class SurfaceRules {
+    /** Subida máxima entre colunas vizinhas, em blocos. */
+    static final int STEP_UP = 1;
+    /** Descida máxima entre colunas vizinhas, em blocos. */
+    static final int MAX_DROP = 3;
+    static final short BLOCKED = Short.MIN_VALUE;
+
+    // Vizinhos: 4 ortogonais primeiro, depois as diagonais
+    static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    static final int[] DZ = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    private SurfaceRules() {
+    }
+
+    /** y de pé a partir do topo sólido devolvido por VoxelWorld.getTopSolidY. */
+    static short standY(int topSolidY) {
+        return topSolidY >= 0 ? (short) (topSolidY + 1) : BLOCKED;
+    }
+
+    /** Pode passar-se de uma coluna com y de pé {@code from} para a vizinha com {@code to}? */
+    static boolean canStep(short from, short to) {
+        if (from == BLOCKED || to == BLOCKED)
+            return false;
+        return to - from <= STEP_UP && from - to <= MAX_DROP;
+    }
+
+    /**
+     * Movimento de (x, z) na direção d numa grelha local de y de pé, indexada por
+     * x * size + z. Nas diagonais as duas colunas ortogonais também têm de ser
+     * atravessáveis (não se cortam cantos).
+     */
+    static boolean canMove(short[] standY, int size, int x, int z, int d) {
+        int tx = x + DX[d], tz = z + DZ[d];
+        if (!canStep(standY[x * size + z], standY[tx * size + tz]))
+            return false;
+        if (DX[d] != 0 && DZ[d] != 0)
+            return canStep(standY[x * size + z], standY[tx * size + z])
+                    && canStep(standY[tx * size + z], standY[tx * size + tz])
+                    && canStep(standY[x * size + z], standY[x * size + tz])
+                    && canStep(standY[x * size + tz], standY[tx * size + tz]);
+        return true;
+    }
+}
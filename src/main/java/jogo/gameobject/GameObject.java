@@ -9,6 +9,15 @@ import jogo.framework.math.Vec3;
 public abstract class GameObject {
     protected final String name;
     protected Vec3 position = new Vec3();
+    // Avisado a cada mudança de posição (ex.: índice espacial do registo do motor)
+    private PositionListener positionListener;
+    // Incrementada a cada setPosition
+    private long positionVersion;
+
+    /** Recebe as mudanças de posição de um objeto. */
+    public interface PositionListener {
+        void positionChanged(GameObject obj);
+    }
 
     protected GameObject(String name) {
         this.name = name;
@@ -23,10 +32,43 @@ public abstract class GameObject {
     }
 
     public void setPosition(Vec3 pos) {
-        this.position.set(pos);
+        setPosition(pos.x, pos.y, pos.z);
     }
 
     public void setPosition(float x, float y, float z) {
         this.position.set(x, y, z);
+        positionVersion++;
+        if (positionListener != null)
+            positionListener.positionChanged(this);
+    }
+
+    /**
+     * Muda a cada setPosition. Quem guarda a versão lida pode saber se o objeto
+     * se mexeu desde então sem comparar coordenadas.
+     */
+    public long getPositionVersion() {
+        return positionVersion;
+    }
+
+    /** Usado pelo motor para seguir as mudanças de posição; null para desligar. */
+    public void setPositionListener(PositionListener listener) {
+        this.positionListener = listener;
+    }
+
+    // Caixa envolvente lógica, relativa à posição, usada pelo picking e pelas consultas espaciais
+
+    /** Meia-largura da caixa em X e Z. */
+    public float getHalfWidth() {
+        return 0.3f;
+    }
+
+    /** Y da base da caixa relativo à posição (por omissão a caixa é centrada). */
+    public float getBottomOffset() {
+        return -0.3f;
+    }
+
+    /** Altura da caixa. */
+    public float getHeight() {
+        return 0.6f;
     }
 }
@@ -23,17 +23,50 @@ public class AIContext {
     public final float tpf;
     /** Referência para o personagem do jogador. */
     public final Character playerRef;
-    /** Referência para os outros objetos do jogo (para evitar colisão). */
-    public final java.util.Collection<jogo.gameobject.GameObject> neighbors;
+    /** Consultas de vizinhança sobre os outros objetos do jogo (para evitar colisão). */
+    public final NeighborQuery neighbors;
+
+    // Distância XZ abaixo da qual dois objetos se repelem
+    private static final float REPULSION_RADIUS = 1.0f;
+    // Resultado das consultas de vizinhança, um por thread (a decisão dos agentes pode correr em paralelo)
+    private static final ThreadLocal<java.util.List<jogo.gameobject.GameObject>> NEARBY = ThreadLocal
+            .withInitial(java.util.ArrayList::new);
+
+    /**
+     * Direções partilhadas até ao jogador que contornam o terreno; null para
+     * andar em linha reta.
+     */
+    public final NavigationField navigation;
+    /** Caminhos longos (assíncronos) sobre o terreno; null se não houver. */
+    public final PathService paths;
 
     /** Constrói contexto com posição do jogador, velocidade base e tpf corrente. */
     public AIContext(Vec3 playerPos, double playerBaseSpeed, float tpf, Character playerRef,
-            java.util.Collection<jogo.gameobject.GameObject> neighbors) {
+            NeighborQuery neighbors) {
+        this(playerPos, playerBaseSpeed, tpf, playerRef, neighbors, null);
+    }
+
+    /** Como o anterior, com um campo de navegação para os passos em direção ao jogador. */
+    public AIContext(Vec3 playerPos, double playerBaseSpeed, float tpf, Character playerRef,
+            NeighborQuery neighbors, NavigationField navigation) {
+        this(playerPos, playerBaseSpeed, tpf, playerRef, neighbors, navigation, null);
+    }
+
+    /** Como o anterior, com o serviço de caminhos para destinos distantes. */
+    public AIContext(Vec3 playerPos, double playerBaseSpeed, float tpf, Character playerRef,
+            NeighborQuery neighbors, NavigationField navigation, PathService paths) {
         this.playerPos = playerPos;
         this.playerBaseSpeed = playerBaseSpeed;
         this.tpf = tpf;
         this.playerRef = playerRef;
         this.neighbors = neighbors;
+        this.navigation = navigation;
+        this.paths = paths;
+    }
+
+    /** Cópia deste contexto com outro tpf (agentes que decidem com menos frequência). */
+    public AIContext withTpf(float tpf) {
+        return new AIContext(playerPos, playerBaseSpeed, tpf, playerRef, neighbors, navigation, paths);
     }
 
     /** Distância no plano XZ entre uma origem e a posição do jogador. */
@@ -63,19 +96,50 @@ public class AIContext {
         double dist = Math.sqrt(dx * dx + dz * dz);
         if (dist <= stopRange || dist == 0.0)
             return new Vec3(0f, 0f, 0f);
-        // Passo inicial em direção ao jogador
+        // Passo inicial em direção ao jogador: pelo campo de navegação se cobrir a coluna, senão em linha reta
         double step = Math.min(maxStep, Math.max(0.0, dist - stopRange));
+        float sx, sz;
+        Vec3 flow = new Vec3();
+        if (navigation != null && navigation.sampleDirection(from.x, from.z, flow)) {
+            sx = (float) (flow.x * step);
+            sz = (float) (flow.z * step);
+        } else {
+            double scale = step / dist;
+            sx = (float) (dx * scale);
+            sz = (float) (dz * scale);
+        }
+        return withRepulsion(from, sx, sz);
+    }
+
+    /**
+     * Calcula um passo XZ limitado em direção a (targetX, targetZ), seguindo o
+     * caminho do {@code follower} quando houver serviço de caminhos e o caminho
+     * já estiver pronto; senão em linha reta.
+     */
+    public Vec3 computeStepTowardsXZ(Vec3 from, float targetX, float targetZ, double maxStep, double stopRange,
+            PathFollower follower) {
+        double dx = targetX - from.x;
+        double dz = targetZ - from.z;
+        double dist = Math.sqrt(dx * dx + dz * dz);
+        if (dist <= stopRange || dist == 0.0)
+            return new Vec3(0f, 0f, 0f);
+        double step = Math.min(maxStep, Math.max(0.0, dist - stopRange));
+        Vec3 dir = new Vec3();
+        if (follower != null && follower.steer(paths, from, targetX, targetZ, dir))
+            return withRepulsion(from, (float) (dir.x * step), (float) (dir.z * step));
         double scale = step / dist;
-        float sx = (float) (dx * scale);
-        float sz = (float) (dz * scale);
+        return withRepulsion(from, (float) (dx * scale), (float) (dz * scale));
+    }
 
-        // Repulsão dos vizinhos
+    // Soma ao passo (sx, sz) a repulsão dos vizinhos a menos de REPULSION_RADIUS (consulta ao índice espacial)
+    private Vec3 withRepulsion(Vec3 from, float sx, float sz) {
         if (neighbors != null) {
-            for (jogo.gameobject.GameObject obj : neighbors) {
-                // Ignorar self e jogador (jogador tratado pelo stopRange, self tratado por
-                // identidade)
-                // Não temos referência 'this' aqui facilmente, mas distância para self é 0.
-                Vec3 np = obj.getPosition();
+            java.util.List<jogo.gameobject.GameObject> nearby = NEARBY.get();
+            nearby.clear();
+            neighbors.queryRadius(from.x, from.z, REPULSION_RADIUS, nearby);
+            for (int i = 0; i < nearby.size(); i++) {
+                // Ignorar self (distância 0); o jogador é tratado pelo stopRange
+                Vec3 np = nearby.get(i).getPosition();
                 double d2 = (from.x - np.x) * (from.x - np.x) + (from.z - np.z) * (from.z - np.z);
                 if (d2 > 0.0001 && d2 < 1.0) { // Se mais próximo que 1.0 unidade (e não é self)
                     double d = Math.sqrt(d2);
@@ -86,6 +150,7 @@ public class AIContext {
                     sz += pz * push;
                 }
             }
+            nearby.clear();
         }
 
         return new Vec3(sx, 0f, sz);
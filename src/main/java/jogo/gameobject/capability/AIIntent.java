@@ -0,0 +1,49 @@
+package jogo.gameobject.capability;
+
+import jogo.framework.math.Vec3;
+import jogo.gameobject.GameObject;
+import jogo.gameobject.character.Character;
+
+/**
+ * Intenção produzida por um agente na fase de decisão da IA: o que quer fazer
+ * neste tick, sem o fazer. O motor aplica as intenções numa fase de commit
+ * separada, pela ordem do registo, para que o resultado não dependa da ordem
+ * (nem da thread) em que os agentes decidiram. Reutilizada entre ticks.
+ */
+public final class AIIntent {
+    /** Deslocação pedida para o próprio agente. */
+    public float moveX, moveY, moveZ;
+    /** Dano a aplicar ao jogador (0 = nenhum). */
+    public int damageToPlayer;
+    /** Cura a aplicar ao jogador (0 = nenhuma). */
+    public int healToPlayer;
+
+    public void clear() {
+        moveX = moveY = moveZ = 0f;
+        damageToPlayer = 0;
+        healToPlayer = 0;
+    }
+
+    public void move(Vec3 step) {
+        moveX += step.x;
+        moveY += step.y;
+        moveZ += step.z;
+    }
+
+    /**
+     * Aplica a intenção: move o agente (se for um {@link GameObject}) e depois
+     * aplica dano e cura ao jogador, se existir.
+     */
+    public void apply(HasAI agent, Character player) {
+        if ((moveX != 0f || moveY != 0f || moveZ != 0f) && agent instanceof GameObject self) {
+            Vec3 p = self.getPosition();
+            self.setPosition(p.x + moveX, p.y + moveY, p.z + moveZ);
+        }
+        if (player != null) {
+            if (damageToPlayer > 0)
+                player.takeDamage(damageToPlayer);
+            if (healToPlayer > 0)
+                player.heal(healToPlayer);
+        }
+    }
+}
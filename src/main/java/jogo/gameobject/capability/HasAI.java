@@ -2,5 +2,19 @@ package jogo.gameobject.capability;
 import jogo.gameobject.capability.AIContext;
 
 public interface HasAI {
-    void updateAI(AIContext ctx);
+
+    /**
+     * Fase de decisão: lê apenas o contexto (posições do tick, incluindo as dos
+     * vizinhos) e o próprio estado, e escreve em {@code out} o que pretende fazer.
+     * Não deve mudar a posição nem outros objetos; pode correr em paralelo com
+     * as decisões dos outros agentes.
+     */
+    void decideAI(AIContext ctx, AIIntent out);
+
+    /** Decide e aplica de imediato (execução isolada, fora do ciclo do AIAppState). */
+    default void updateAI(AIContext ctx) {
+        AIIntent intent = new AIIntent();
+        decideAI(ctx, intent);
+        intent.apply(this, ctx.playerRef);
+    }
 }
@@ -0,0 +1,18 @@
+package jogo.gameobject.capability;
+
+import jogo.framework.math.Vec3;
+
+/**
+ * Campo de direções partilhado, neutro em relação ao motor: para cada coluna
+ * (x, z) indica para onde andar para chegar ao alvo (o jogador) respeitando o
+ * terreno. A consulta é O(1) e pode ser feita em paralelo pelos agentes.
+ */
+public interface NavigationField {
+
+    /**
+     * Escreve em {@code out} a direção XZ unitária a seguir a partir de (x, z).
+     * Devolve false se a coluna estiver fora do campo, for o próprio alvo ou não
+     * tiver caminho até ele; {@code out} fica então inalterado.
+     */
+    boolean sampleDirection(float x, float z, Vec3 out);
+}
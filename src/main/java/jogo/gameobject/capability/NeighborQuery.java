@@ -0,0 +1,20 @@
+package jogo.gameobject.capability;
+
+import jogo.gameobject.GameObject;
+
+import java.util.List;
+
+/**
+ * Consultas de vizinhança no plano XZ, neutras em relação ao motor. O motor
+ * fornece uma implementação indexada (grelha espacial), pelo que o custo
+ * depende dos objetos próximos e não do total registado.
+ */
+public interface NeighborQuery {
+
+    /**
+     * Acrescenta a {@code out} os objetos cuja posição está a distância XZ menor
+     * ou igual a {@code radius} de (x, z), sem ordem definida.
+     */
+    void queryRadius(float x, float z, float radius, List<GameObject> out);
+
+}
@@ -0,0 +1,77 @@
+package jogo.gameobject.capability;
+
+import jogo.framework.math.Vec3;
+
+/**
+ * Estado de um agente que segue um caminho do {@link PathService}: faz o
+ * pedido, volta a pedir quando o destino se afasta ou o agente sai do caminho,
+ * e devolve a direção para o próximo ponto de passagem. Cada agente tem o seu;
+ * pode ser usado na fase de decisão em paralelo.
+ */
+public final class PathFollower {
+    // Deslocação do destino (em blocos) a partir da qual se pede novo caminho
+    private static final float REPLAN_DISTANCE = 4f;
+    // Distância a que um ponto de passagem conta como atingido
+    private static final float WAYPOINT_RADIUS = 0.6f;
+    // Afastamento ao ponto de passagem seguinte que indica que o agente saiu do caminho
+    private static final float OFF_PATH_DISTANCE = 3f;
+
+    private PathRequest request;
+    private float goalX, goalZ;
+    private int index;
+
+    /**
+     * Escreve em {@code out} a direção XZ unitária a seguir a partir de
+     * {@code from} para chegar a (goalX, goalZ). Devolve false enquanto o
+     * caminho não estiver pronto, se não houver caminho ou se já tiver chegado
+     * ao fim; {@code out} fica então inalterado.
+     */
+    public boolean steer(PathService paths, Vec3 from, float goalX, float goalZ, Vec3 out) {
+        if (paths == null)
+            return false;
+        if (request == null || Math.abs(goalX - this.goalX) > REPLAN_DISTANCE
+                || Math.abs(goalZ - this.goalZ) > REPLAN_DISTANCE)
+            replan(paths, from, goalX, goalZ);
+        if (!request.isDone() || !request.isFound())
+            return false;
+        int n = request.size();
+        while (index < n && distance(from, index) < WAYPOINT_RADIUS)
+            index++;
+        if (index >= n)
+            return false;
+        float d = distance(from, index);
+        if (d > OFF_PATH_DISTANCE) {
+            replan(paths, from, goalX, goalZ);
+            return false;
+        }
+        out.x = (request.getX(index) - from.x) / d;
+        out.y = 0f;
+        out.z = (request.getZ(index) - from.z) / d;
+        return true;
+    }
+
+    /** Esquece o caminho atual (e cancela-o se ainda estiver a ser calculado). */
+    public void reset() {
+        if (request != null)
+            request.cancel();
+        request = null;
+        index = 0;
+    }
+
+    /** Há um caminho pedido (pronto ou não). */
+    public boolean isActive() {
+        return request != null;
+    }
+
+    private void replan(PathService paths, Vec3 from, float goalX, float goalZ) {
+        reset();
+        this.goalX = goalX;
+        this.goalZ = goalZ;
+        request = paths.requestPath(from.x, from.z, goalX, goalZ);
+    }
+
+    private float distance(Vec3 from, int i) {
+        float dx = request.getX(i) - from.x, dz = request.getZ(i) - from.z;
+        return (float) Math.sqrt(dx * dx + dz * dz);
+    }
+}
@@ -0,0 +1,25 @@
+package jogo.gameobject.capability;
+
+/**
+ * Pedido de caminho em curso ou terminado. Enquanto {@link #isDone()} for
+ * false o caminho ainda está a ser calculado; só passa a true entre ticks e
+ * depois disso o resultado não muda. Os pontos de passagem são centros de colunas, do início para o fim.
+ */
+public interface PathRequest {
+
+    /** O cálculo terminou (com ou sem caminho, ou foi cancelado). */
+    boolean isDone();
+
+    /** Terminou e encontrou caminho. */
+    boolean isFound();
+
+    /** Número de pontos de passagem (0 até estar encontrado). */
+    int size();
+
+    float getX(int index);
+
+    float getZ(int index);
+
+    /** Desiste do pedido; se ainda não tiver começado não chega a ser calculado. */
+    void cancel();
+}
@@ -0,0 +1,16 @@
+package jogo.gameobject.capability;
+
+/**
+ * Serviço de caminhos longos sobre o terreno, neutro em relação ao motor. Os
+ * pedidos são resolvidos fora da thread de render e o resultado só aparece
+ * entre ticks, nunca a meio de um; o agente guarda o {@link PathRequest}
+ * devolvido e consulta-o nos ticks seguintes.
+ */
+public interface PathService {
+
+    /**
+     * Pede um caminho da coluna que contém (fromX, fromZ) até à que contém
+     * (toX, toZ). Nunca bloqueia; pode ser chamado de qualquer thread.
+     */
+    PathRequest requestPath(float fromX, float fromZ, float toX, float toZ);
+}
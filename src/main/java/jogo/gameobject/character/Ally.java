@@ -1,6 +1,8 @@
 package jogo.gameobject.character;
 
+import jogo.gameobject.capability.AIIntent;
 import jogo.gameobject.capability.HasAI;
+import jogo.gameobject.capability.PathFollower;
 import jogo.framework.math.Vec3;
 
 /**
@@ -30,6 +32,10 @@ public class Ally extends Character implements HasAI {
     private double followRange = 15.0;
     /** Distância mínima para parar de seguir o jogador. */
     private double stopRange = 3.0;
+    /** Além do followRange e até aqui, o aliado volta para junto do jogador por caminho. */
+    private double regroupRange = 96.0;
+    /** Caminho até ao jogador quando está longe (fora do alcance do flow field). */
+    private final PathFollower regroupPath = new PathFollower();
 
     /**
      * Constrói um aliado com papel e proteção.
@@ -131,7 +137,7 @@ public class Ally extends Character implements HasAI {
     private static final float HEAL_DELAY = 2.0f;
 
     @Override
-    public void updateAI(jogo.gameobject.capability.AIContext context) {
+    public void decideAI(jogo.gameobject.capability.AIContext context, AIIntent out) {
         // Gestão de cooldown
         if (healCooldown > 0) {
             healCooldown -= context.tpf;
@@ -140,27 +146,44 @@ public class Ally extends Character implements HasAI {
         // Decisão de estado e movimento neutros (sem tipos do motor)
         if (context.shouldFollow(getPosition(), followRange)) {
             state = AllyState.FOLLOW;
+            regroupPath.reset();
             // Passo limitado pela velocidade base do jogador e tpf
             Vec3 step = context.computeStepTowardsPlayerXZ(getPosition(), stopRange);
-            setPosition(getPosition().x + step.x, getPosition().y + step.y, getPosition().z + step.z);
+            out.move(step);
 
-            // Lógica de cura
-            if (context.playerRef != null && context.distanceXZ(getPosition()) <= stopRange + 1.0) {
+            // Lógica de cura (com a posição depois do passo)
+            Vec3 next = new Vec3(getPosition().x + step.x, getPosition().y + step.y, getPosition().z + step.z);
+            if (context.playerRef != null && context.distanceXZ(next) <= stopRange + 1.0) {
                 if (healCooldown <= 0 && healPower > 0) {
-                    context.playerRef.heal(healPower);
+                    out.healToPlayer = healPower;
                     healCooldown = HEAL_DELAY;
                 }
             }
+        } else if (context.paths != null && context.shouldFollow(getPosition(), regroupRange)) {
+            // Longe: reagrupar pelo caminho hierárquico até voltar ao followRange
+            state = AllyState.FOLLOW;
+            Vec3 pos = getPosition();
+            out.move(context.computeStepTowardsXZ(pos, context.playerPos.x, context.playerPos.z,
+                    context.playerBaseSpeed * Math.max(0f, context.tpf), stopRange, regroupPath));
         } else if (context.shouldStop(getPosition(), stopRange)) {
             state = AllyState.IDLE;
             // Também cura se parado e próximo
             if (healCooldown <= 0 && healPower > 0 && context.playerRef != null) {
-                context.playerRef.heal(healPower);
+                out.healToPlayer = healPower;
                 healCooldown = HEAL_DELAY;
             }
         }
     }
 
+    /** Distância até à qual o aliado volta para junto do jogador por caminho. */
+    public double getRegroupRange() {
+        return regroupRange;
+    }
+
+    public void setRegroupRange(double regroupRange) {
+        this.regroupRange = Math.max(followRange, regroupRange);
+    }
+
     @Override
     public String toString() {
         return super.toString() + " Papel: " + role;
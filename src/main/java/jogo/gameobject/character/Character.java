@@ -15,6 +15,22 @@ public abstract class Character extends GameObject {
         super(name);
     }
 
+    // A posição é a dos pés; a caixa cobre o modelo (~1.8 de altura, braços incluídos)
+    @Override
+    public float getHalfWidth() {
+        return 0.45f;
+    }
+
+    @Override
+    public float getBottomOffset() {
+        return 0f;
+    }
+
+    @Override
+    public float getHeight() {
+        return 1.8f;
+    }
+
     // Ganchos de estado que os estudantes podem estender
     /** Valor atual de saúde. */
     private int health = 100;
@@ -2,7 +2,8 @@ package jogo.gameobject.character;
 
 import jogo.gameobject.capability.HasAI;
 import jogo.gameobject.capability.AIContext;
-import jogo.framework.math.Vec3;
+import jogo.gameobject.capability.AIIntent;
+import jogo.gameobject.capability.PathFollower;
 
 /**
  * Entidade inimiga neutra em relação ao motor.
@@ -33,6 +34,13 @@ public class Enemy extends Character implements HasAI {
     private float attackCooldown = 0f;
     private float ATTACK_DELAY = 1f;
 
+    // Destino de navegação fora da perseguição (por caminho longo), se houver
+    private boolean hasTarget;
+    private float targetX, targetZ;
+    private final PathFollower path = new PathFollower();
+    // Distância XZ ao destino a que se considera chegado
+    private static final float ARRIVE_RANGE = 1f;
+
     /**
      * Constrói um inimigo com um nome de apresentação.
      * 
@@ -67,8 +75,28 @@ public class Enemy extends Character implements HasAI {
         return strength;
     }
 
+    /**
+     * Manda o inimigo andar até (x, z) quando não está a perseguir o jogador.
+     * O caminho é pedido ao serviço de caminhos do contexto; sem ele anda em
+     * linha reta. O destino é esquecido ao chegar.
+     */
+    public void navigateTo(float x, float z) {
+        targetX = x;
+        targetZ = z;
+        hasTarget = true;
+    }
+
+    public void clearNavigation() {
+        hasTarget = false;
+        path.reset();
+    }
+
+    public boolean hasNavigationTarget() {
+        return hasTarget;
+    }
+
     @Override
-    public void updateAI(AIContext context) {
+    public void decideAI(AIContext context, AIIntent out) {
 
         if (attackCooldown > 0) {
             attackCooldown -= context.tpf;
@@ -80,18 +108,30 @@ public class Enemy extends Character implements HasAI {
             state = enemyState.ATTACK;
         } else if (dist <= chaseRange) {
             state = enemyState.CHASE;
-            Vec3 step = context.computeStepTowardsPlayerXZ(getPosition(), 1.5);
-            setPosition(getPosition().x + step.x, getPosition().y + step.y, getPosition().z + step.z);
+            out.move(context.computeStepTowardsPlayerXZ(getPosition(), 1.5));
         } else if (dist > chaseRange) {
             state = enemyState.IDLE;
+            if (hasTarget)
+                navigate(context, out);
         }
 
         if (attackCooldown <= 0 && state == enemyState.ATTACK) {
-            context.playerRef.takeDamage((int) this.strength);
+            out.damageToPlayer = (int) this.strength;
             attackCooldown = ATTACK_DELAY;
         }
     }
 
+    // Passo em direção ao destino de navegação; esquece-o ao chegar
+    private void navigate(AIContext context, AIIntent out) {
+        float dx = targetX - getPosition().x, dz = targetZ - getPosition().z;
+        if (dx * dx + dz * dz <= ARRIVE_RANGE * ARRIVE_RANGE) {
+            clearNavigation();
+            return;
+        }
+        out.move(context.computeStepTowardsXZ(getPosition(), targetX, targetZ,
+                context.playerBaseSpeed * Math.max(0f, context.tpf), 0.0, path));
+    }
+
     @Override
     public String toString() {
         return super.toString() + " Força: " + strength;
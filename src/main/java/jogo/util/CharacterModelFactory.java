@@ -0,0 +1,71 @@
+package jogo.util;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fábrica de modelos de personagem com cache. A malha única do
+ * {@link SkinUtils#createCharacterMesh()} é construída uma vez e partilhada
+ * por todas as skins; cada skin tem um protótipo com o seu material (a textura
+ * carrega-se uma só vez). Cada NPC recebe um clone leve do protótipo, que
+ * aponta para a mesma malha e o mesmo material: não há alocação de malha nem
+ * de textura por NPC, e os da mesma skin podem ser instanciados num draw call.
+ */
+public final class CharacterModelFactory {
+    private final AssetManager assetManager;
+    private final boolean instanced;
+    private Mesh mesh;
+    private final Map<String, Geometry> prototypes = new HashMap<>();
+
+    /**
+     * @param instanced ativa UseInstancing nos materiais (para os modelos irem
+     *                  para um InstancedNode)
+     */
+    public CharacterModelFactory(AssetManager assetManager, boolean instanced) {
+        this.assetManager = assetManager;
+        this.instanced = instanced;
+    }
+
+    /** Novo modelo para a skin; partilha malha e material com os outros da mesma skin. */
+    public Geometry create(String skinPath) {
+        return prototype(skinPath).clone(false);
+    }
+
+    /** Material partilhado da skin (criado na primeira utilização). */
+    public Material getMaterial(String skinPath) {
+        return prototype(skinPath).getMaterial();
+    }
+
+    /** Malha partilhada por todos os modelos. */
+    public Mesh getMesh() {
+        if (mesh == null)
+            mesh = SkinUtils.createCharacterMesh();
+        return mesh;
+    }
+
+    /** Número de skins em cache. */
+    public int getSkinCount() {
+        return prototypes.size();
+    }
+
+    /** Esquece os protótipos (os modelos já criados continuam válidos). */
+    public void clear() {
+        prototypes.clear();
+        mesh = null;
+    }
+
+    private Geometry prototype(String skinPath) {
+        Geometry proto = prototypes.get(skinPath);
+        if (proto == null) {
+            proto = new Geometry("CharacterModel", getMesh());
+            proto.setMaterial(SkinUtils.createSkinMaterial(assetManager, skinPath, instanced));
+            prototypes.put(skinPath, proto);
+        }
+        return proto;
+    }
+}
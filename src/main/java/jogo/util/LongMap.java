@@ -0,0 +1,157 @@
+package jogo.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Mapa de chaves long para valores, com endereçamento aberto (sondagem linear).
+ * Ao contrário de {@code HashMap<Long, V>} não cria objetos Long em get/put, o
+ * que importa em consultas por vóxel como {@code VoxelWorld.getBlock}. Itera
+ * sobre os valores. Não é thread-safe; valores null não são suportados.
+ */
+public final class LongMap<V> implements Iterable<V> {
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongMap() {
+        this(64);
+    }
+
+    public LongMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2) - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int i = slot(key);; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (v == null)
+                return null;
+            if (keys[i] == key)
+                return (V) v;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("null values are not supported");
+        if ((size + 1) * 2 > keys.length)
+            resize(keys.length * 2);
+        for (int i = slot(key);; i = (i + 1) & mask) {
+            if (values[i] == null) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return null;
+            }
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = slot(key);
+        while (values[i] != null && keys[i] != key)
+            i = (i + 1) & mask;
+        if (values[i] == null)
+            return null;
+        V old = (V) values[i];
+        values[i] = null;
+        size--;
+        // Recuar as entradas seguintes do mesmo grupo para não quebrar a sondagem
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+            if (movable) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = null;
+                i = j;
+            }
+        }
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < values.length && values[from] == null)
+                    from++;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < values.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (next >= values.length)
+                    throw new NoSuchElementException();
+                V v = (V) values[next];
+                next = advance(next + 1);
+                return v;
+            }
+        };
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null)
+                reinsert(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void reinsert(long key, Object value) {
+        int i = slot(key);
+        while (values[i] != null)
+            i = (i + 1) & mask;
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // mistura de Fibonacci
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
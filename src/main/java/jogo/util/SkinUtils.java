@@ -3,9 +3,7 @@ package jogo.util;
 import com.jme3.asset.AssetManager;
 import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
-import com.jme3.scene.Node;
 import com.jme3.texture.Texture;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
@@ -21,9 +19,32 @@ public class SkinUtils {
     private static final int TEX_W = 64;
     private static final int TEX_H = 64;
 
-    public static Node createCharacterModel(AssetManager assetManager, String skinPath) {
-        Node node = new Node("CharacterModel");
+    // 1 pixel = 0.055 units -> Total height ~1.8m
+    private static final float PX = 0.055f;
+
+    /**
+     * Single-mesh character model with its own material (nothing is shared).
+     * For many NPCs use {@link CharacterModelFactory}, which caches the mesh
+     * and one material per skin.
+     */
+    public static Geometry createCharacterModel(AssetManager assetManager, String skinPath) {
+        Geometry g = new Geometry("CharacterModel", createCharacterMesh());
+        g.setMaterial(createSkinMaterial(assetManager, skinPath, false));
+        return g;
+    }
+
+    /**
+     * Skin material for character models. Share one per skin path: models with
+     * the same material can be batched by an InstancedNode ({@code instanced}
+     * turns on UseInstancing in the Lighting shader).
+     */
+    public static Material createSkinMaterial(AssetManager assetManager, String skinPath, boolean instanced) {
+        Material mat = createSkinMaterial(assetManager, skinPath);
+        mat.setBoolean("UseInstancing", instanced);
+        return mat;
+    }
 
+    private static Material createSkinMaterial(AssetManager assetManager, String skinPath) {
         // Load texture
         Texture tex = assetManager.loadTexture(skinPath);
         tex.setMagFilter(Texture.MagFilter.Nearest);
@@ -39,10 +60,16 @@ public class SkinUtils {
         // Setup transparency for Hat layer
         mat.getAdditionalRenderState().setBlendMode(com.jme3.material.RenderState.BlendMode.Alpha);
         mat.setFloat("AlphaDiscardThreshold", 0.5f);
+        return mat;
+    }
 
-        // Constants
-        // 1 pixel = 0.055 units -> Total height ~1.8m
-        float px = 0.055f;
+    /**
+     * Builds the whole character (head, hat, body, arms, legs) as one mesh with
+     * the part offsets and skin UVs baked in, feet at y = 0. The mesh does not
+     * depend on the skin, so it can be shared by every character.
+     */
+    public static Mesh createCharacterMesh() {
+        float px = PX;
 
         // Parts dimensions (w, h, d in pixels)
         // Leg: 4, 12, 4
@@ -53,8 +80,7 @@ public class SkinUtils {
         float bodyH = 12 * px;
         float headH = 8 * px;
 
-        // POSITIONS (Y relative to parent, centered in part geometry)
-        // Geometry creates centered mesh, so we offset center.
+        // POSITIONS (Y of each part's center; parts are built centered and then offset)
 
         // Legs sit on ground (0). Center = legH/2.
         float legY = legH / 2f;
@@ -65,141 +91,123 @@ public class SkinUtils {
         // Head sits on body (legH + bodyH). Center = legH + bodyH + headH/2.
         float headY = legH + bodyH + (headH / 2f);
 
-        // Arms centered at shoulder height.
-        // Shoulders are at (legH + bodyH). Arms hang down 12px.
-        // Pivot is top of arm. Center is 6px down from top.
-        // Center Y = (legH + bodyH) - (12*px / 2) = legH + bodyH - 6px.
-        // = legH + 6px.
-        // Let's verify: Body top is legH+12px. Center of body is legH+6px.
-        // So arms center aligns with body center vertically if arms are same height.
-        // Yes.
+        // Arms hang 12px from the shoulders (legH + bodyH), so their center
+        // aligns with the body center.
         float armY = bodyY;
 
-        // HEAD (8x8x8) at (0, 0)
-        Geometry head = createPart("Head", 8, 8, 8, 0, 0, mat, px, 0);
-        head.setLocalTranslation(0, headY, 0);
-        node.attachChild(head);
-
-        // HEAD OVERLAY (HAT) (8x8x8) at (32, 0) - Scaled slightly up
-        Geometry hat = createPart("Hat", 8, 8, 8, 32, 0, mat, px, 0.005f);
-        hat.setLocalTranslation(0, headY, 0);
-        node.attachChild(hat);
-
-        // BODY (8x12x4) at (16, 16)
-        Geometry body = createPart("Body", 8, 12, 4, 16, 16, mat, px, 0);
-        body.setLocalTranslation(0, bodyY, 0);
-        node.attachChild(body);
-
-        // ARMS (4x12x4)
-        // Body width = 8*px. Half = 4*px.
-        // Arm width = 4*px. Half = 2*px.
-        // Center Dist = 4*px + 2*px = 6*px.
+        // Body width = 8*px, arm width = 4*px -> arm center 6*px from the middle.
         float armDist = 6 * px;
-
-        // Right Arm at (40, 16)
-        Geometry rightArm = createPart("RightArm", 4, 12, 4, 40, 16, mat, px, 0);
-        rightArm.setLocalTranslation(armDist, armY, 0);
-        node.attachChild(rightArm);
-
-        // Left Arm at (32, 48)
-        Geometry leftArm = createPart("LeftArm", 4, 12, 4, 32, 48, mat, px, 0);
-        leftArm.setLocalTranslation(-armDist, armY, 0);
-        node.attachChild(leftArm);
-
-        // LEGS (4x12x4)
-        // Leg width = 4*px. Half = 2*px.
-        // Center Dist = 2*px.
+        // Leg width = 4*px -> leg center 2*px from the middle.
         float legDist = 2 * px;
 
-        // Right Leg at (0, 16)
-        Geometry rightLeg = createPart("RightLeg", 4, 12, 4, 0, 16, mat, px, 0);
-        rightLeg.setLocalTranslation(legDist, legY, 0);
-        node.attachChild(rightLeg);
-
-        // Left Leg at (16, 48)
-        Geometry leftLeg = createPart("LeftLeg", 4, 12, 4, 16, 48, mat, px, 0);
-        leftLeg.setLocalTranslation(-legDist, legY, 0);
-        node.attachChild(leftLeg);
-
-        return node;
-    }
-
-    private static Geometry createPart(String name, int w, int h, int d, int u, int v, Material mat, float pixelScale,
-            float inflate) {
-        // Size in meters (with slight inflation for overlays)
-        float hw = ((w * pixelScale) / 2f) + inflate;
-        float hh = ((h * pixelScale) / 2f) + inflate;
-        float hd = ((d * pixelScale) / 2f) + inflate;
+        MeshData data = new MeshData(PARTS);
+        // HEAD (8x8x8) at (0, 0)
+        data.addPart(8, 8, 8, 0, 0, px, 0, 0, headY, 0);
+        // HEAD OVERLAY (HAT) (8x8x8) at (32, 0) - Scaled slightly up
+        data.addPart(8, 8, 8, 32, 0, px, 0.005f, 0, headY, 0);
+        // BODY (8x12x4) at (16, 16)
+        data.addPart(8, 12, 4, 16, 16, px, 0, 0, bodyY, 0);
+        // Right Arm (4x12x4) at (40, 16)
+        data.addPart(4, 12, 4, 40, 16, px, 0, armDist, armY, 0);
+        // Left Arm (4x12x4) at (32, 48)
+        data.addPart(4, 12, 4, 32, 48, px, 0, -armDist, armY, 0);
+        // Right Leg (4x12x4) at (0, 16)
+        data.addPart(4, 12, 4, 0, 16, px, 0, legDist, legY, 0);
+        // Left Leg (4x12x4) at (16, 48)
+        data.addPart(4, 12, 4, 16, 48, px, 0, -legDist, legY, 0);
 
         Mesh mesh = new Mesh();
-
-        // Vertices (8 corners, duplicates for face normals/UVs -> 24 vertices)
-        Vector3f[] p = new Vector3f[] {
-                new Vector3f(-hw, -hh, hd), new Vector3f(hw, -hh, hd), new Vector3f(hw, hh, hd),
-                new Vector3f(-hw, hh, hd), // Front
-                new Vector3f(hw, -hh, -hd), new Vector3f(-hw, -hh, -hd), new Vector3f(-hw, hh, -hd),
-                new Vector3f(hw, hh, -hd), // Back
-                new Vector3f(-hw, -hh, -hd), new Vector3f(-hw, -hh, hd), new Vector3f(-hw, hh, hd),
-                new Vector3f(-hw, hh, -hd), // Left
-                new Vector3f(hw, -hh, hd), new Vector3f(hw, -hh, -hd), new Vector3f(hw, hh, -hd),
-                new Vector3f(hw, hh, hd), // Right
-                new Vector3f(-hw, hh, hd), new Vector3f(hw, hh, hd), new Vector3f(hw, hh, -hd),
-                new Vector3f(-hw, hh, -hd), // Top
-                new Vector3f(-hw, -hh, -hd), new Vector3f(hw, -hh, -hd), new Vector3f(hw, -hh, hd),
-                new Vector3f(-hw, -hh, hd) // Bottom
-        };
-
-        // Indices
-        int[] indexes = {
-                0, 1, 2, 2, 3, 0, // Front
-                4, 5, 6, 6, 7, 4, // Back
-                8, 9, 10, 10, 11, 8, // Left (Outer)
-                12, 13, 14, 14, 15, 12, // Right (Outer)
-                16, 17, 18, 18, 19, 16, // Top
-                20, 21, 22, 22, 23, 20 // Bottom
-        };
-
-        // Normals (Flat shading)
-        float[] normals = {
-                0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1,
-                0, 0, -1, 0, 0, -1, 0, 0, -1, 0, 0, -1,
-                -1, 0, 0, -1, 0, 0, -1, 0, 0, -1, 0, 0,
-                1, 0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0,
-                0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1, 0,
-                0, -1, 0, 0, -1, 0, 0, -1, 0, 0, -1, 0
-        };
-
-        mesh.setBuffer(VertexBuffer.Type.Position, 3, BufferUtils.createFloatBuffer(p));
-        mesh.setBuffer(VertexBuffer.Type.Normal, 3, BufferUtils.createFloatBuffer(normals));
-        mesh.setBuffer(VertexBuffer.Type.Index, 3, BufferUtils.createIntBuffer(indexes));
-
-        // Calculate UVs per face
-        float[] texCoords = new float[2 * 24];
-
-        // Front Face (u+d, v+d, w, h) -> Indices 0-3
-        mapFace(texCoords, 0, u + d, v + d, w, h);
-
-        // Back Face (u+d+w+d, v+d, w, h) -> Indices 4-7
-        mapFace(texCoords, 4, u + d + w + d, v + d, w, h);
-
-        // Left Face (Outer Left logic: u+d+w, v+d) -> Indices 8-11
-        mapFace(texCoords, 8, u + d + w, v + d, d, h);
-
-        // Right Face (Outer Right logic: u, v+d) -> Indices 12-15
-        mapFace(texCoords, 12, u, v + d, d, h);
-
-        // Top Face (u+d, v, w, d) -> Indices 16-19
-        mapFace(texCoords, 16, u + d, v, w, d);
-
-        // Bottom Face (u+d+w, v, w, d) -> Indices 20-23
-        mapFace(texCoords, 20, u + d + w, v, w, d);
-
-        mesh.setBuffer(VertexBuffer.Type.TexCoord, 2, BufferUtils.createFloatBuffer(texCoords));
+        mesh.setBuffer(VertexBuffer.Type.Position, 3, BufferUtils.createFloatBuffer(data.positions));
+        mesh.setBuffer(VertexBuffer.Type.Normal, 3, BufferUtils.createFloatBuffer(data.normals));
+        mesh.setBuffer(VertexBuffer.Type.TexCoord, 2, BufferUtils.createFloatBuffer(data.texCoords));
+        mesh.setBuffer(VertexBuffer.Type.Index, 3, BufferUtils.createIntBuffer(data.indexes));
         mesh.updateBound();
+        mesh.setStatic();
+        return mesh;
+    }
 
-        Geometry g = new Geometry(name, mesh);
-        g.setMaterial(mat);
-        return g;
+    // Number of boxes in the character mesh (head, hat, body, 2 arms, 2 legs)
+    private static final int PARTS = 7;
+
+    // Normals (Flat shading), per face: Front, Back, Left, Right, Top, Bottom
+    private static final float[] FACE_NORMALS = {
+            0, 0, 1,
+            0, 0, -1,
+            -1, 0, 0,
+            1, 0, 0,
+            0, 1, 0,
+            0, -1, 0
+    };
+
+    // Merged vertex data: 24 vertices (4 per face) and 36 indexes per box
+    private static final class MeshData {
+        final float[] positions, normals, texCoords;
+        final int[] indexes;
+        private int vertex, index;
+
+        MeshData(int parts) {
+            positions = new float[parts * 24 * 3];
+            normals = new float[parts * 24 * 3];
+            texCoords = new float[parts * 24 * 2];
+            indexes = new int[parts * 36];
+        }
+
+        /**
+         * Adds a w x h x d (pixels) box centered at (ox, oy, oz) with its skin
+         * region at (u, v), inflated by {@code inflate} for overlays.
+         */
+        void addPart(int w, int h, int d, int u, int v, float pixelScale, float inflate, float ox, float oy,
+                float oz) {
+            // Size in meters (with slight inflation for overlays)
+            float hw = ((w * pixelScale) / 2f) + inflate;
+            float hh = ((h * pixelScale) / 2f) + inflate;
+            float hd = ((d * pixelScale) / 2f) + inflate;
+
+            // Vertices (8 corners, duplicates for face normals/UVs -> 24 vertices)
+            float[] p = {
+                    -hw, -hh, hd, hw, -hh, hd, hw, hh, hd, -hw, hh, hd, // Front
+                    hw, -hh, -hd, -hw, -hh, -hd, -hw, hh, -hd, hw, hh, -hd, // Back
+                    -hw, -hh, -hd, -hw, -hh, hd, -hw, hh, hd, -hw, hh, -hd, // Left
+                    hw, -hh, hd, hw, -hh, -hd, hw, hh, -hd, hw, hh, hd, // Right
+                    -hw, hh, hd, hw, hh, hd, hw, hh, -hd, -hw, hh, -hd, // Top
+                    -hw, -hh, -hd, hw, -hh, -hd, hw, -hh, hd, -hw, -hh, hd // Bottom
+            };
+            int base = vertex;
+            for (int i = 0; i < 24; i++) {
+                int o = (base + i) * 3;
+                positions[o] = p[i * 3] + ox;
+                positions[o + 1] = p[i * 3 + 1] + oy;
+                positions[o + 2] = p[i * 3 + 2] + oz;
+                System.arraycopy(FACE_NORMALS, (i / 4) * 3, normals, o, 3);
+            }
+
+            // Indices (two triangles per face)
+            for (int f = 0; f < 6; f++) {
+                int q = base + f * 4;
+                indexes[index++] = q;
+                indexes[index++] = q + 1;
+                indexes[index++] = q + 2;
+                indexes[index++] = q + 2;
+                indexes[index++] = q + 3;
+                indexes[index++] = q;
+            }
+
+            // Calculate UVs per face
+            // Front Face (u+d, v+d, w, h)
+            mapFace(texCoords, base, u + d, v + d, w, h);
+            // Back Face (u+d+w+d, v+d, w, h)
+            mapFace(texCoords, base + 4, u + d + w + d, v + d, w, h);
+            // Left Face (Outer Left logic: u+d+w, v+d)
+            mapFace(texCoords, base + 8, u + d + w, v + d, d, h);
+            // Right Face (Outer Right logic: u, v+d)
+            mapFace(texCoords, base + 12, u, v + d, d, h);
+            // Top Face (u+d, v, w, d)
+            mapFace(texCoords, base + 16, u + d, v, w, d);
+            // Bottom Face (u+d+w, v, w, d)
+            mapFace(texCoords, base + 20, u + d + w, v, w, d);
+
+            vertex += 24;
+        }
     }
 
     private static void mapFace(float[] buff, int offsetVertex, int u, int v, int w, int h) {
@@ -0,0 +1,141 @@
+package jogo.voxel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Pool de threads para meshing de chunks. Os workers recebem apenas snapshots
+ * imutáveis; os resultados ficam numa fila que a thread de render esvazia com
+ * {@link #applyCompleted(long)} dentro do seu orçamento por frame, e só são
+ * aplicados se o chunk não tiver sido alterado entretanto.
+ */
+public class AsyncChunkMesher {
+    private final ExecutorService pool;
+    // Trabalhos pendentes por chunk; só acedido na thread de render
+    private final Map<Chunk, Future<?>> inFlight = new HashMap<>();
+    // Resultados prontos, escritos pelos workers e aplicados na thread de render
+    private final ConcurrentLinkedQueue<Runnable> completed = new ConcurrentLinkedQueue<>();
+
+    public AsyncChunkMesher(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "chunk-mesher-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /** Um worker por core, deixando um livre para a thread de render. */
+    public static int defaultThreadCount() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * Constrói as malhas de todos os snapshots em paralelo e espera pelo fim
+     * (usado no arranque). A ordem do resultado segue a dos snapshots.
+     */
+    public List<ChunkMeshData> meshAll(List<ChunkSnapshot> snapshots, VoxelPalette palette, MeshingMode mode) {
+        List<Callable<ChunkMeshData>> tasks = new ArrayList<>(snapshots.size());
+        for (ChunkSnapshot snap : snapshots)
+            tasks.add(() -> ChunkMesher.mesh(snap, palette, mode));
+        List<ChunkMeshData> out = new ArrayList<>(snapshots.size());
+        try {
+            for (Future<ChunkMeshData> f : pool.invokeAll(tasks))
+                out.add(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Chunk meshing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Chunk meshing failed", e.getCause());
+        }
+        return out;
+    }
+
+    /**
+     * Agenda a reconstrução de um chunk. Um trabalho anterior ainda pendente para o
+     * mesmo chunk é cancelado. {@code onReady} corre em {@link #applyCompleted} e
+     * só se a versão do chunk for ainda a do snapshot. Chamar apenas na thread de
+     * render.
+     */
+    public void submit(Chunk chunk, ChunkSnapshot snap, VoxelPalette palette, MeshingMode mode,
+            Consumer<ChunkMeshData> onReady) {
+        Future<?> previous = inFlight.remove(chunk);
+        if (previous != null)
+            previous.cancel(false);
+        int version = snap.getVersion();
+        // O próprio trabalho, para o retirar de inFlight sem apagar um mais recente do mesmo chunk
+        AtomicReference<Future<?>> self = new AtomicReference<>();
+        Future<?> job = pool.submit(() -> {
+            ChunkMeshData data = null;
+            // Editado de novo antes de começar: o resultado seria descartado
+            if (chunk.getVersion() == version) {
+                try {
+                    data = ChunkMesher.mesh(snap, palette, mode);
+                } catch (RuntimeException e) {
+                    System.err.println("Chunk meshing failed for [" + snap.getChunkX() + "," + snap.getChunkY()
+                            + "," + snap.getChunkZ() + "]: " + e);
+                }
+            }
+            ChunkMeshData result = data;
+            // Sempre publicado (mesmo sem malha) para o trabalho sair de inFlight
+            completed.add(() -> {
+                inFlight.remove(chunk, self.get());
+                if (result != null && chunk.getVersion() == version)
+                    onReady.accept(result);
+            });
+        });
+        self.set(job);
+        inFlight.put(chunk, job);
+    }
+
+    /**
+     * Cancela o trabalho pendente de um chunk (ex.: descarregado). Se já estiver
+     * a correr, o resultado é descartado porque a versão do chunk mudou.
+     */
+    public void cancel(Chunk chunk) {
+        Future<?> job = inFlight.remove(chunk);
+        if (job != null)
+            job.cancel(false);
+    }
+
+    /**
+     * Aplica na thread atual (render) os resultados prontos até ao prazo em
+     * System.nanoTime; os restantes ficam para a chamada seguinte.
+     */
+    public int applyCompleted(long deadlineNanos) {
+        int applied = 0;
+        Runnable result;
+        while ((result = completed.poll()) != null) {
+            result.run();
+            applied++;
+            if (System.nanoTime() >= deadlineNanos)
+                break;
+        }
+        return applied;
+    }
+
+    /** Número de chunks com meshing ainda por aplicar. */
+    public int getPendingCount() {
+        return inFlight.size();
+    }
+
+    public void shutdown() {
+        for (Future<?> f : inFlight.values())
+            f.cancel(false);
+        inFlight.clear();
+        completed.clear();
+        pool.shutdownNow();
+    }
+}
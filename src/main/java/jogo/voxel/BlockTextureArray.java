@@ -0,0 +1,74 @@
+package jogo.voxel;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.math.ColorRGBA;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.TextureArray;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.texture.image.ImageRaster;
+import com.jme3.util.BufferUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Empacota as texturas dos blocos num único {@link TextureArray} com uma camada
+ * por id da paleta (camada = id). Assim todos os blocos de um chunk partilham um
+ * material e a camada segue na terceira coordenada de textura de cada vértice.
+ */
+public final class BlockTextureArray {
+    public static final String MAT_DEF = "MatDefs/VoxelArray.j3md";
+
+    private BlockTextureArray() {
+    }
+
+    /**
+     * Carrega as texturas da paleta e reamostra-as (nearest) para o tamanho da
+     * maior, já que as camadas de um array têm de ter as mesmas dimensões. A cor
+     * de {@link VoxelBlockType#getTint()} é aplicada aos píxeis.
+     */
+    public static TextureArray build(AssetManager assetManager, VoxelPalette palette) {
+        int count = palette.size();
+        Image[] sources = new Image[count];
+        int size = 1;
+        for (int id = 0; id < count; id++) {
+            String path = palette.get((byte) id).getTexturePath();
+            if (path == null)
+                continue;
+            sources[id] = assetManager.loadTexture(path).getImage();
+            size = Math.max(size, Math.max(sources[id].getWidth(), sources[id].getHeight()));
+        }
+        List<Image> layers = new ArrayList<>(count);
+        for (int id = 0; id < count; id++)
+            layers.add(layer(sources[id], palette.get((byte) id).getTint(), size));
+
+        TextureArray array = new TextureArray(layers);
+        array.setMagFilter(Texture.MagFilter.Nearest);
+        array.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
+        array.setAnisotropicFilter(1);
+        array.setWrap(Texture.WrapMode.Repeat);
+        return array;
+    }
+
+    // Camada RGBA8 size x size; transparente quando o bloco não tem textura (ex: ar)
+    private static Image layer(Image source, ColorRGBA tint, int size) {
+        Image image = new Image(Image.Format.RGBA8, size, size, BufferUtils.createByteBuffer(size * size * 4),
+                ColorSpace.sRGB);
+        if (source == null)
+            return image;
+        ImageRaster in = ImageRaster.create(source);
+        ImageRaster out = ImageRaster.create(image);
+        ColorRGBA c = new ColorRGBA();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                in.getPixel(x * source.getWidth() / size, y * source.getHeight() / size, c);
+                c.r *= tint.r;
+                c.g *= tint.g;
+                c.b *= tint.b;
+                out.setPixel(x, y, c);
+            }
+        }
+        return image;
+    }
+}
@@ -1,18 +1,13 @@
 package jogo.voxel;
 
-import com.jme3.asset.AssetManager;
 import com.jme3.bullet.PhysicsSpace;
 import com.jme3.bullet.collision.shapes.CollisionShape;
-import com.jme3.bullet.control.RigidBodyControl;
-import com.jme3.bullet.util.CollisionShapeFactory;
+import com.jme3.bullet.objects.PhysicsRigidBody;
 import com.jme3.material.Material;
+import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.Node;
-import jogo.framework.math.Vec3;
-
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Representa um chunk do mundo voxel (ex: blocos de 16x16x16).
@@ -20,18 +15,29 @@ import java.util.Map;
 public class Chunk {
     public static final int SIZE = 16;
     private final int chunkX, chunkY, chunkZ;
-    private final byte[][][] vox;
+    private final ChunkStorage storage = new ChunkStorage();
     private final Node node;
+    // Geometria única do chunk (todos os tipos de bloco), reutilizada entre reconstruções
+    private Geometry geometry;
 
     private boolean dirty = true;
-
-    private RigidBodyControl rigidBody;
+    // Editado depois da geração; o mundo guarda-o ao descarregar em vez de o regenerar
+    private boolean modified = false;
+    // Incrementada a cada alteração (thread de render); lida pelas threads de meshing
+    private volatile int version = 0;
+    private int triangleCount = 0;
+    // Estado na fila de reconstrução (geridos por DirtyChunkQueue)
+    boolean queued = false;
+    float queuePriority;
+
+    // Caixas de colisão da última malha aplicada (ver ChunkCollider)
+    private int[] collisionBoxes = new int[0];
+    private PhysicsRigidBody rigidBody;
 
     public Chunk(int chunkX, int chunkY, int chunkZ) {
         this.chunkX = chunkX;
         this.chunkY = chunkY;
         this.chunkZ = chunkZ;
-        this.vox = new byte[SIZE][SIZE][SIZE];
         this.node = new Node("Chunk_" + chunkX + "," + chunkY + "," + chunkZ);
     }
 
@@ -40,11 +46,16 @@ public class Chunk {
     }
 
     public byte get(int x, int y, int z) {
-        return vox[x][y][z];
+        return storage.get(ChunkStorage.index(x, y, z));
     }
 
     public void set(int x, int y, int z, byte id) {
-        vox[x][y][z] = id;
+        storage.set(ChunkStorage.index(x, y, z), id);
+    }
+
+    /** Armazenamento compacto dos vóxeis (para estatísticas de memória). */
+    public ChunkStorage getStorage() {
+        return storage;
     }
 
     public int getChunkX() {
@@ -61,6 +72,15 @@ public class Chunk {
 
     public void markDirty() {
         dirty = true;
+        version++;
+    }
+
+    /**
+     * Versão dos dados do chunk. Malhas construídas a partir de uma versão antiga
+     * são descartadas em vez de anexadas.
+     */
+    public int getVersion() {
+        return version;
     }
 
     public boolean isDirty() {
@@ -71,120 +91,91 @@ public class Chunk {
         dirty = false;
     }
 
-    // Construir e anexar malha para este chunk
-    public void buildMesh(AssetManager assetManager, VoxelPalette palette) {
-        long start = System.nanoTime();
-        node.detachAllChildren();
-        Map<Byte, MeshBuilder> builders = new HashMap<>();
-        for (int i = 0; i < palette.size(); i++) {
-            if (i == VoxelPalette.AIR_ID)
-                continue;
-            MeshBuilder mb = new MeshBuilder();
-            // Aleatorizar UVs apenas para terra para adicionar variação sem materiais por
-            // bloco
-            mb.setRandomizeUV(true);
-            builders.put((byte) i, mb);
-        }
-        // Rastrear posição do primeiro bloco para cada tipo
-        Map<Byte, Vec3> firstBlockPos = new HashMap<>();
-        for (int x = 0; x < SIZE; x++) {
-            for (int y = 0; y < SIZE; y++) {
-                for (int z = 0; z < SIZE; z++) {
-                    byte id = vox[x][y][z];
-                    if (id == VoxelPalette.AIR_ID)
-                        continue;
-                    // Renderizar mesmo se não for sólido (ex: folhas)
-                    MeshBuilder builder = builders.get(id);
-                    int wx = chunkX * SIZE + x;
-                    int wy = chunkY * SIZE + y;
-                    int wz = chunkZ * SIZE + z;
-                    // Adicionar faces apenas se o vizinho for ar ou fora dos limites
-                    if (!isSolid(wx + 1, wy, wz, palette))
-                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.PX);
-                    if (!isSolid(wx - 1, wy, wz, palette))
-                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.NX);
-                    if (!isSolid(wx, wy + 1, wz, palette))
-                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.PY);
-                    if (!isSolid(wx, wy - 1, wz, palette))
-                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.NY);
-                    if (!isSolid(wx, wy, wz + 1, palette))
-                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.PZ);
-                    if (!isSolid(wx, wy, wz - 1, palette))
-                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.NZ);
-                    if (!firstBlockPos.containsKey(id))
-                        firstBlockPos.put(id, new Vec3(wx, wy, wz));
-                }
-            }
-        }
-        int geomCount = 0;
-        for (Map.Entry<Byte, MeshBuilder> entry : builders.entrySet()) {
-            MeshBuilder meshBuilder = entry.getValue();
-            Mesh mesh = meshBuilder.build();
-            if (mesh.getTriangleCount() > 0) {
-                byte id = entry.getKey();
-                Geometry g = new Geometry("chunk_" + chunkX + "_" + chunkY + "_" + chunkZ + "_" + id, mesh);
-                Vec3 blockPos = firstBlockPos.getOrDefault(id, new Vec3(chunkX * SIZE, chunkY * SIZE, chunkZ * SIZE));
-                Material mat = palette.get(id).getMaterial(assetManager, blockPos);
-                g.setMaterial(mat);
-                node.attachChild(g);
-                geomCount++;
-            }
+    public void markModified() {
+        modified = true;
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+
+    /** Meshing síncrono na thread atual seguido de {@link #applyMesh}. */
+    public void buildMesh(Material material, VoxelPalette palette, MeshingMode mode) {
+        applyMesh(material, ChunkMesher.mesh(snapshot(), palette, mode));
+    }
+
+    /**
+     * Cópia imutável dos vóxeis atuais para meshing fora da thread de render, sem
+     * margem de vizinhos (ver {@link VoxelWorld#snapshot(Chunk)}).
+     */
+    public ChunkSnapshot snapshot() {
+        return new ChunkSnapshot(this, null);
+    }
+
+    /**
+     * Substitui a malha do chunk pela já construída. Deve correr na thread de
+     * render (toca no grafo de cena). O material é o material partilhado do
+     * mundo ({@link BlockTextureArray}), por isso não se cria nenhum aqui.
+     */
+    public void applyMesh(Material material, ChunkMeshData data) {
+        Mesh mesh = data.getMesh();
+        if (mesh == null) {
+            node.detachAllChildren();
+        } else {
+            if (geometry == null)
+                geometry = new Geometry("chunk_" + chunkX + "_" + chunkY + "_" + chunkZ, mesh);
+            else
+                geometry.setMesh(mesh);
+            geometry.setMaterial(material);
+            if (geometry.getParent() != node)
+                node.attachChild(geometry);
         }
-        long end = System.nanoTime();
-        System.out.println("Chunk [" + chunkX + "," + chunkY + "," + chunkZ + "] mesh built in "
-                + ((end - start) / 1_000_000.0) + " ms, geometries: " + geomCount);
+        triangleCount = data.getTriangleCount();
+        collisionBoxes = data.getCollisionBoxes();
+    }
+
+    /**
+     * Remove o chunk da cena e da física ao sair da distância de visão. Invalida
+     * também malhas ainda em construção e deixa-o sujo para quando voltar.
+     */
+    public void unload(PhysicsSpace space) {
+        removePhysics(space);
+        node.removeFromParent();
+        node.detachAllChildren();
+        triangleCount = 0;
+        markDirty();
+    }
+
+    /** Número de triângulos gerados na última construção da malha. */
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /** Número de caixas da forma de colisão atual. */
+    public int getCollisionBoxCount() {
+        return collisionBoxes.length;
     }
 
     /**
-     * Atualiza o controlo de física para este chunk. Chamar após reconstrução da
-     * malha.
+     * Atualiza o corpo de física estático deste chunk a partir das caixas de
+     * colisão da última malha. Chamar após reconstrução da malha.
      */
     public void updatePhysics(PhysicsSpace space) {
-        if (rigidBody != null) {
-            System.out
-                    .println("Removing old RigidBodyControl for chunk [" + chunkX + "," + chunkY + "," + chunkZ + "]");
-            space.remove(rigidBody);
-            node.removeControl(rigidBody);
-            rigidBody = null;
-        }
-        if (node.getQuantity() > 0) { // Adicionar apenas se o chunk tiver geometria
-            // Garantir que o nó está anexado a um pai (nó do mundo)
-            if (node.getParent() == null) {
-                System.out.println("Warning: Chunk node [" + chunkX + "," + chunkY + "," + chunkZ
-                        + "] not attached to world node before physics update!");
-            }
-            // Clonar malhas para forma de colisão para evitar problemas de cache do Bullet
-            Node tempNode = node.clone(false); // clone superficial
-            for (int i = 0; i < node.getQuantity(); i++) {
-                if (node.getChild(i) instanceof Geometry) {
-                    Geometry g = (Geometry) node.getChild(i);
-                    Geometry gClone = g.clone(false);
-                    gClone.setMesh(g.getMesh().deepClone());
-                    tempNode.attachChild(gClone);
-                }
-            }
-            CollisionShape shape = CollisionShapeFactory.createMeshShape(tempNode);
-            rigidBody = new RigidBodyControl(shape, 0f);
-            node.addControl(rigidBody);
-            space.add(rigidBody);
-            System.out.println("Added new RigidBodyControl for chunk [" + chunkX + "," + chunkY + "," + chunkZ + "]");
-        }
+        removePhysics(space);
+        if (space == null || collisionBoxes.length == 0) // Apenas se houver blocos sólidos
+            return;
+        CollisionShape shape = ChunkCollider.createShape(collisionBoxes);
+        rigidBody = new PhysicsRigidBody(shape, 0f);
+        rigidBody.setPhysicsLocation(new Vector3f(chunkX * SIZE, chunkY * SIZE, chunkZ * SIZE));
+        space.add(rigidBody);
     }
 
-    // Auxiliar para verificação de solidez em coordenadas do mundo
-    private boolean isSolid(int wx, int wy, int wz, VoxelPalette palette) {
-        if (wx < 0 || wy < 0 || wz < 0)
-            return false;
-        int max = SIZE * 1000; // limite de mundo arbitrariamente grande
-        if (wx >= max || wy >= max || wz >= max)
-            return false;
-        int cx = wx / SIZE, cy = wy / SIZE, cz = wz / SIZE;
-        int lx = wx % SIZE, ly = wy % SIZE, lz = wz % SIZE;
-        if (cx != chunkX || cy != chunkY || cz != chunkZ)
-            return false; // verificar apenas dentro deste chunk
-        if (lx < 0 || ly < 0 || lz < 0 || lx >= SIZE || ly >= SIZE || lz >= SIZE)
-            return false;
-        byte id = vox[lx][ly][lz];
-        return id != VoxelPalette.AIR_ID && palette.get(id).isSolid();
+    /** Retira o corpo de física do chunk do espaço, se existir. */
+    public void removePhysics(PhysicsSpace space) {
+        if (rigidBody == null)
+            return;
+        if (space != null)
+            space.remove(rigidBody);
+        rigidBody = null;
     }
 }
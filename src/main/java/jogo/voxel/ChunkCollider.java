@@ -0,0 +1,96 @@
+package jogo.voxel;
+
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.collision.shapes.CompoundCollisionShape;
+
+import java.util.Arrays;
+
+/**
+ * Colisão de chunks feita diretamente a partir dos vóxeis: os blocos sólidos
+ * são fundidos em caixas (greedy em x, depois z, depois y) e juntos numa
+ * {@link CompoundCollisionShape}. Não depende da malha de render, por isso
+ * blocos não sólidos como as folhas não geram colisão.
+ * <p>
+ * Cada caixa é empacotada num int: x | y&lt;&lt;4 | z&lt;&lt;8 | (w-1)&lt;&lt;12 |
+ * (h-1)&lt;&lt;16 | (d-1)&lt;&lt;20, em coordenadas locais do chunk.
+ */
+public final class ChunkCollider {
+    private static final int SIZE = Chunk.SIZE;
+
+    // Formas de caixa partilhadas por dimensão (w,h,d); só usadas na thread de render
+    private static final BoxCollisionShape[] BOX_SHAPES = new BoxCollisionShape[SIZE * SIZE * SIZE];
+
+    private ChunkCollider() {
+    }
+
+    /** Decompõe os vóxeis sólidos do snapshot em caixas. Seguro em qualquer thread. */
+    public static int[] boxes(ChunkSnapshot snap, VoxelPalette palette) {
+        boolean[] free = new boolean[ChunkStorage.VOLUME];
+        for (int y = 0; y < SIZE; y++)
+            for (int z = 0; z < SIZE; z++)
+                for (int x = 0; x < SIZE; x++)
+                    free[ChunkStorage.index(x, y, z)] = snap.isSolid(x, y, z, palette);
+
+        int[] out = new int[64];
+        int count = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int z = 0; z < SIZE; z++) {
+                for (int x = 0; x < SIZE; x++) {
+                    if (!free[ChunkStorage.index(x, y, z)])
+                        continue;
+                    int w = 1;
+                    while (x + w < SIZE && free[ChunkStorage.index(x + w, y, z)])
+                        w++;
+                    int d = 1;
+                    growZ: while (z + d < SIZE) {
+                        for (int i = 0; i < w; i++)
+                            if (!free[ChunkStorage.index(x + i, y, z + d)])
+                                break growZ;
+                        d++;
+                    }
+                    int h = 1;
+                    growY: while (y + h < SIZE) {
+                        for (int k = 0; k < d; k++)
+                            for (int i = 0; i < w; i++)
+                                if (!free[ChunkStorage.index(x + i, y + h, z + k)])
+                                    break growY;
+                        h++;
+                    }
+                    for (int j = 0; j < h; j++)
+                        for (int k = 0; k < d; k++)
+                            for (int i = 0; i < w; i++)
+                                free[ChunkStorage.index(x + i, y + j, z + k)] = false;
+                    if (count == out.length)
+                        out = Arrays.copyOf(out, count * 2);
+                    out[count++] = x | y << 4 | z << 8 | (w - 1) << 12 | (h - 1) << 16 | (d - 1) << 20;
+                }
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    /**
+     * Forma composta com uma caixa por entrada, relativa à origem do chunk.
+     * Chamar na thread de render.
+     */
+    public static CollisionShape createShape(int[] boxes) {
+        CompoundCollisionShape compound = new CompoundCollisionShape(boxes.length);
+        for (int box : boxes) {
+            int x = box & 15, y = (box >> 4) & 15, z = (box >> 8) & 15;
+            int w = ((box >> 12) & 15) + 1, h = ((box >> 16) & 15) + 1, d = ((box >> 20) & 15) + 1;
+            compound.addChildShape(boxShape(w, h, d), x + w * 0.5f, y + h * 0.5f, z + d * 0.5f);
+        }
+        return compound;
+    }
+
+    private static BoxCollisionShape boxShape(int w, int h, int d) {
+        int key = (w - 1) | (h - 1) << 4 | (d - 1) << 8;
+        BoxCollisionShape shape = BOX_SHAPES[key];
+        if (shape == null) {
+            shape = new BoxCollisionShape(w * 0.5f, h * 0.5f, d * 0.5f);
+            BOX_SHAPES[key] = shape;
+        }
+        return shape;
+    }
+}
@@ -0,0 +1,54 @@
+package jogo.voxel;
+
+import com.jme3.scene.Mesh;
+
+/**
+ * Resultado do meshing de um chunk: uma única malha com todos os tipos de
+ * bloco (null se vazia) e as caixas de colisão dos blocos sólidos, prontas a
+ * ser aplicadas na thread de render por {@link Chunk#applyMesh}.
+ */
+public final class ChunkMeshData {
+    private final int version;
+    private final MeshingMode mode;
+    private final Mesh mesh;
+    private final int[] collisionBoxes;
+    private final int triangleCount;
+    private final double buildMillis;
+
+    ChunkMeshData(int version, MeshingMode mode, Mesh mesh, int[] collisionBoxes, int triangleCount,
+            double buildMillis) {
+        this.version = version;
+        this.mode = mode;
+        this.mesh = mesh;
+        this.collisionBoxes = collisionBoxes;
+        this.triangleCount = triangleCount;
+        this.buildMillis = buildMillis;
+    }
+
+    /** Versão do chunk a partir da qual esta malha foi construída. */
+    public int getVersion() {
+        return version;
+    }
+
+    public MeshingMode getMode() {
+        return mode;
+    }
+
+    /** Malha do chunk, ou null se não houver faces visíveis. */
+    public Mesh getMesh() {
+        return mesh;
+    }
+
+    /** Caixas de colisão empacotadas (ver {@link ChunkCollider}). */
+    public int[] getCollisionBoxes() {
+        return collisionBoxes;
+    }
+
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    public double getBuildMillis() {
+        return buildMillis;
+    }
+}
@@ -0,0 +1,160 @@
+package jogo.voxel;
+
+import com.jme3.scene.Mesh;
+
+/**
+ * Meshing de chunks a partir de um {@link ChunkSnapshot}. Não toca no grafo de
+ * cena nem em materiais, por isso pode correr em qualquer thread; cada thread
+ * reutiliza o seu próprio {@link MeshBuilder}.
+ */
+public final class ChunkMesher {
+    private static final int SIZE = Chunk.SIZE;
+
+    // Builder reutilizado entre reconstruções, um por thread; a camada de textura
+    // de cada face é o id do bloco, por isso todos os tipos partilham a malha
+    private static final ThreadLocal<MeshBuilder> BUILDERS = ThreadLocal.withInitial(MeshBuilder::new);
+
+    private ChunkMesher() {
+    }
+
+    public static ChunkMeshData mesh(ChunkSnapshot snap, VoxelPalette palette, MeshingMode mode) {
+        long start = System.nanoTime();
+        MeshBuilder builder = BUILDERS.get();
+        builder.reset();
+        // Aleatorizar UVs para adicionar variação sem materiais por bloco (só no
+        // modo naive; quads fundidos usam UVs escalados)
+        builder.setRandomizeUV(mode == MeshingMode.NAIVE);
+        if (mode == MeshingMode.GREEDY)
+            buildGreedyFaces(snap, builder, palette);
+        else
+            buildNaiveFaces(snap, builder, palette);
+
+        Mesh mesh = builder.isEmpty() ? null : builder.build();
+        // Colisão calculada dos vóxeis (não da malha), também fora da thread de render
+        int[] boxes = ChunkCollider.boxes(snap, palette);
+        double ms = (System.nanoTime() - start) / 1_000_000.0;
+        return new ChunkMeshData(snap.getVersion(), mode, mesh, boxes, builder.getTriangleCount(), ms);
+    }
+
+    // Uma face por bloco visível
+    private static void buildNaiveFaces(ChunkSnapshot snap, MeshBuilder builder, VoxelPalette palette) {
+        int ox = snap.getChunkX() * SIZE;
+        int oy = snap.getChunkY() * SIZE;
+        int oz = snap.getChunkZ() * SIZE;
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                for (int z = 0; z < SIZE; z++) {
+                    byte id = snap.get(x, y, z);
+                    if (id == VoxelPalette.AIR_ID)
+                        continue;
+                    int wx = ox + x;
+                    int wy = oy + y;
+                    int wz = oz + z;
+                    // Renderizar mesmo se não for sólido (ex: folhas)
+                    int layer = id & 0xFF;
+                    // Adicionar faces apenas se o vizinho for ar ou fora dos limites
+                    if (!snap.isSolid(x + 1, y, z, palette))
+                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.PX, layer);
+                    if (!snap.isSolid(x - 1, y, z, palette))
+                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.NX, layer);
+                    if (!snap.isSolid(x, y + 1, z, palette))
+                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.PY, layer);
+                    if (!snap.isSolid(x, y - 1, z, palette))
+                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.NY, layer);
+                    if (!snap.isSolid(x, y, z + 1, palette))
+                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.PZ, layer);
+                    if (!snap.isSolid(x, y, z - 1, palette))
+                        builder.addVoxelFace(wx, wy, wz, MeshBuilder.Face.NZ, layer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Meshing greedy: para cada direção de face e cada fatia do chunk constrói uma
+     * máscara 16x16 com o id das faces visíveis e funde-a em retângulos máximos do
+     * mesmo tipo de bloco.
+     */
+    private static void buildGreedyFaces(ChunkSnapshot snap, MeshBuilder builder, VoxelPalette palette) {
+        int ox = snap.getChunkX() * SIZE;
+        int oy = snap.getChunkY() * SIZE;
+        int oz = snap.getChunkZ() * SIZE;
+        byte[] mask = new byte[SIZE * SIZE];
+        int[] c = new int[3];
+        int[] ext = new int[3];
+        for (MeshBuilder.Face face : MeshBuilder.Face.values()) {
+            int d = faceAxis(face);
+            int dir = faceSign(face);
+            int u = (d + 1) % 3;
+            int v = (d + 2) % 3;
+            for (int s = 0; s < SIZE; s++) {
+                // Construir máscara da fatia
+                c[d] = s;
+                for (int j = 0; j < SIZE; j++) {
+                    c[v] = j;
+                    for (int i = 0; i < SIZE; i++) {
+                        c[u] = i;
+                        byte id = snap.get(c[0], c[1], c[2]);
+                        byte m = 0;
+                        if (id != VoxelPalette.AIR_ID) {
+                            int nx = c[0] + (d == 0 ? dir : 0);
+                            int ny = c[1] + (d == 1 ? dir : 0);
+                            int nz = c[2] + (d == 2 ? dir : 0);
+                            if (!snap.isSolid(nx, ny, nz, palette))
+                                m = id;
+                        }
+                        mask[i + j * SIZE] = m;
+                    }
+                }
+                // Fundir a máscara em retângulos
+                for (int j = 0; j < SIZE; j++) {
+                    for (int i = 0; i < SIZE;) {
+                        byte id = mask[i + j * SIZE];
+                        if (id == 0) {
+                            i++;
+                            continue;
+                        }
+                        int w = 1;
+                        while (i + w < SIZE && mask[i + w + j * SIZE] == id)
+                            w++;
+                        int h = 1;
+                        grow: while (j + h < SIZE) {
+                            for (int k = 0; k < w; k++) {
+                                if (mask[i + k + (j + h) * SIZE] != id)
+                                    break grow;
+                            }
+                            h++;
+                        }
+                        c[d] = s;
+                        c[u] = i;
+                        c[v] = j;
+                        ext[d] = 1;
+                        ext[u] = w;
+                        ext[v] = h;
+                        builder.addVoxelRect(ox + c[0], oy + c[1], oz + c[2], face,
+                                ext[0], ext[1], ext[2], id & 0xFF);
+                        for (int l = 0; l < h; l++)
+                            for (int k = 0; k < w; k++)
+                                mask[i + k + (j + l) * SIZE] = 0;
+                        i += w;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int faceAxis(MeshBuilder.Face face) {
+        return switch (face) {
+            case PX, NX -> 0;
+            case PY, NY -> 1;
+            case PZ, NZ -> 2;
+        };
+    }
+
+    private static int faceSign(MeshBuilder.Face face) {
+        return switch (face) {
+            case PX, PY, PZ -> 1;
+            case NX, NY, NZ -> -1;
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package jogo.voxel;
+
+/**
+ * Cópia imutável dos vóxeis de um chunk, tirada na thread de render, para que
+ * as threads de meshing nunca leiam o estado mutável do mundo.
+ * <p>
+ * Os dados ficam num buffer 18³ com uma margem de um vóxel copiada das faces
+ * dos seis chunks vizinhos, para que as faces de fronteira escondidas por um
+ * vizinho sólido sejam descartadas. Arestas e cantos da margem ficam a ar (o
+ * culling de faces só consulta vizinhos axiais).
+ */
+public final class ChunkSnapshot {
+    private static final int SIZE = Chunk.SIZE;
+    private static final int P = SIZE + 2;
+
+    private final int chunkX, chunkY, chunkZ;
+    private final int version;
+    private final byte[] voxels = new byte[P * P * P];
+
+    /**
+     * @param neighbours vizinhos na ordem de {@link MeshBuilder.Face} (PX, NX, PY,
+     *                   NY, PZ, NZ); null ou entradas null contam como ar
+     */
+    ChunkSnapshot(Chunk chunk, Chunk[] neighbours) {
+        this.chunkX = chunk.getChunkX();
+        this.chunkY = chunk.getChunkY();
+        this.chunkZ = chunk.getChunkZ();
+        this.version = chunk.getVersion();
+        for (int y = 0; y < SIZE; y++)
+            for (int z = 0; z < SIZE; z++)
+                for (int x = 0; x < SIZE; x++)
+                    voxels[index(x, y, z)] = chunk.get(x, y, z);
+        if (neighbours == null)
+            return;
+        int last = SIZE - 1;
+        for (int a = 0; a < SIZE; a++) {
+            for (int b = 0; b < SIZE; b++) {
+                if (neighbours[0] != null) // PX: x = 16 <- vizinho x = 0
+                    voxels[index(SIZE, a, b)] = neighbours[0].get(0, a, b);
+                if (neighbours[1] != null) // NX: x = -1 <- vizinho x = 15
+                    voxels[index(-1, a, b)] = neighbours[1].get(last, a, b);
+                if (neighbours[2] != null) // PY
+                    voxels[index(a, SIZE, b)] = neighbours[2].get(a, 0, b);
+                if (neighbours[3] != null) // NY
+                    voxels[index(a, -1, b)] = neighbours[3].get(a, last, b);
+                if (neighbours[4] != null) // PZ
+                    voxels[index(a, b, SIZE)] = neighbours[4].get(a, b, 0);
+                if (neighbours[5] != null) // NZ
+                    voxels[index(a, b, -1)] = neighbours[5].get(a, b, last);
+            }
+        }
+    }
+
+    private static int index(int x, int y, int z) {
+        return ((y + 1) * P + (z + 1)) * P + (x + 1);
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    /** Versão do chunk no momento da cópia (ver {@link Chunk#getVersion()}). */
+    public int getVersion() {
+        return version;
+    }
+
+    /** Id do bloco em coordenadas locais (-1..SIZE, incluindo a margem). */
+    public byte get(int x, int y, int z) {
+        return voxels[index(x, y, z)];
+    }
+
+    /** Solidez em coordenadas locais; fora da margem conta como não sólido. */
+    public boolean isSolid(int x, int y, int z, VoxelPalette palette) {
+        if (x < -1 || y < -1 || z < -1 || x > SIZE || y > SIZE || z > SIZE)
+            return false;
+        byte id = get(x, y, z);
+        return id != VoxelPalette.AIR_ID && palette.get(id).isSolid();
+    }
+}
@@ -0,0 +1,141 @@
+package jogo.voxel;
+
+import java.util.Arrays;
+
+/**
+ * Armazenamento plano dos 16³ vóxeis de um chunk, indexado por
+ * {@code (y << 8) | (z << 4) | x}.
+ * <p>
+ * Cada vóxel guarda um índice para uma paleta local de ids do
+ * {@link VoxelPalette}. A codificação muda automaticamente: um chunk uniforme
+ * (todo ar, toda pedra) guarda só o valor; com mais tipos usa índices de
+ * 1/2/4/8 bits empacotados em {@code long[]}. Uma contagem por entrada da
+ * paleta permite reutilizar entradas que deixaram de ser usadas e voltar ao
+ * modo de valor único quando o chunk fica de novo uniforme.
+ */
+public final class ChunkStorage {
+    public static final int VOLUME = Chunk.SIZE * Chunk.SIZE * Chunk.SIZE;
+
+    private byte[] palette; // ids globais por índice local
+    private int[] counts; // número de vóxeis por índice local
+    private int paletteSize;
+    private int bits; // 0 = valor único (sem dados)
+    private long[] data;
+
+    public ChunkStorage() {
+        this(VoxelPalette.AIR_ID);
+    }
+
+    public ChunkStorage(byte fill) {
+        resetTo(fill);
+    }
+
+    public static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    public byte get(int index) {
+        if (bits == 0)
+            return palette[0];
+        return palette[read(index)];
+    }
+
+    public void set(int index, byte id) {
+        if (bits == 0) {
+            if (palette[0] == id)
+                return;
+            grow(1);
+        }
+        int old = read(index);
+        if (palette[old] == id)
+            return;
+        int local = localIndexFor(id);
+        write(index, local);
+        counts[local]++;
+        if (--counts[old] == 0 && counts[local] == VOLUME)
+            resetTo(id); // ficou uniforme outra vez
+    }
+
+    /** Preenche todo o chunk com um único id (modo de valor único). */
+    public void fill(byte id) {
+        resetTo(id);
+    }
+
+    /** Indica se todos os vóxeis têm o mesmo id. */
+    public boolean isUniform() {
+        return bits == 0;
+    }
+
+    /** Bits por vóxel da codificação atual (0 para chunks uniformes). */
+    public int getBitsPerVoxel() {
+        return bits;
+    }
+
+    /** Estimativa dos bytes ocupados pelos arrays deste armazenamento. */
+    public int estimateBytes() {
+        int bytes = palette.length + counts.length * 4;
+        if (data != null)
+            bytes += data.length * 8;
+        return bytes;
+    }
+
+    private void resetTo(byte id) {
+        palette = new byte[] { id };
+        counts = new int[] { VOLUME };
+        paletteSize = 1;
+        bits = 0;
+        data = null;
+    }
+
+    // Índice local do id, reutilizando entradas vazias ou alargando a paleta
+    private int localIndexFor(byte id) {
+        int free = -1;
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == id)
+                return i;
+            if (free < 0 && counts[i] == 0)
+                free = i;
+        }
+        if (free >= 0) {
+            palette[free] = id;
+            return free;
+        }
+        if (paletteSize == (1 << bits))
+            grow(bits * 2);
+        palette[paletteSize] = id;
+        counts[paletteSize] = 0;
+        return paletteSize++;
+    }
+
+    // Reempacotar para mais bits por vóxel (1, 2, 4 ou 8)
+    private void grow(int newBits) {
+        newBits = Math.min(8, newBits);
+        int capacity = 1 << newBits;
+        long[] newData = new long[VOLUME * newBits / 64];
+        if (bits > 0) {
+            int perLong = 64 / newBits;
+            for (int i = 0; i < VOLUME; i++) {
+                long v = read(i);
+                newData[i / perLong] |= v << ((i % perLong) * newBits);
+            }
+        }
+        palette = Arrays.copyOf(palette, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        data = newData;
+        bits = newBits;
+    }
+
+    private int read(int index) {
+        int perLong = 64 / bits;
+        long word = data[index / perLong];
+        return (int) ((word >>> ((index % perLong) * bits)) & ((1L << bits) - 1));
+    }
+
+    private void write(int index, int value) {
+        int perLong = 64 / bits;
+        int slot = index / perLong;
+        int shift = (index % perLong) * bits;
+        long mask = ((1L << bits) - 1) << shift;
+        data[slot] = (data[slot] & ~mask) | ((long) value << shift);
+    }
+}
@@ -0,0 +1,85 @@
+package jogo.voxel;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * Fila de chunks sujos sem duplicados, esvaziada por prioridade: mais perto da
+ * câmara primeiro, com os chunks fora do frustum a contar como se estivessem 4x
+ * mais longe. A prioridade é recalculada a cada {@link #drain} porque a câmara
+ * se move entre frames. Só usada na thread de render.
+ */
+final class DirtyChunkQueue {
+    // Distância² multiplicada por 16 (= 4x a distância) para chunks não visíveis
+    private static final float OFFSCREEN_FACTOR = 16f;
+
+    private final ArrayList<Chunk> queue = new ArrayList<>();
+    private final Comparator<Chunk> byPriority = (a, b) -> Float.compare(a.queuePriority, b.queuePriority);
+    private final BoundingBox bounds = new BoundingBox();
+    private final Vector3f center = new Vector3f();
+
+    /** Acrescenta o chunk se ainda não estiver na fila. */
+    boolean add(Chunk chunk) {
+        if (chunk.queued)
+            return false;
+        chunk.queued = true;
+        queue.add(chunk);
+        return true;
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    void clear() {
+        for (Chunk chunk : queue)
+            chunk.queued = false;
+        queue.clear();
+    }
+
+    /**
+     * Passa chunks a {@code process} por ordem de prioridade até ao prazo (em
+     * System.nanoTime), processando sempre pelo menos um. Os restantes ficam para
+     * o próximo frame. Com {@code cam} null a ordem é a de chegada.
+     */
+    int drain(Camera cam, long deadlineNanos, Consumer<Chunk> process) {
+        if (queue.isEmpty())
+            return 0;
+        if (cam != null) {
+            int planeState = cam.getPlaneState();
+            cam.setPlaneState(0);
+            for (Chunk chunk : queue)
+                chunk.queuePriority = priority(chunk, cam);
+            cam.setPlaneState(planeState);
+            queue.sort(byPriority);
+        }
+        int done = 0;
+        while (done < queue.size()) {
+            Chunk chunk = queue.get(done++);
+            chunk.queued = false;
+            process.accept(chunk);
+            if (System.nanoTime() >= deadlineNanos)
+                break;
+        }
+        queue.subList(0, done).clear();
+        return done;
+    }
+
+    private float priority(Chunk chunk, Camera cam) {
+        float half = Chunk.SIZE * 0.5f;
+        center.set(chunk.getChunkX() * Chunk.SIZE + half, chunk.getChunkY() * Chunk.SIZE + half,
+                chunk.getChunkZ() * Chunk.SIZE + half);
+        float dist2 = center.distanceSquared(cam.getLocation());
+        bounds.setCenter(center);
+        bounds.setXExtent(half);
+        bounds.setYExtent(half);
+        bounds.setZExtent(half);
+        boolean visible = cam.contains(bounds) != Camera.FrustumIntersect.Outside;
+        return visible ? dist2 : dist2 * OFFSCREEN_FACTOR;
+    }
+}
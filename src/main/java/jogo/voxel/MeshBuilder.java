@@ -1,147 +1,199 @@
 package jogo.voxel;
 
-import com.jme3.math.Vector2f;
-import com.jme3.math.Vector3f;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
+import com.jme3.util.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * Acumula vértices de faces de vóxeis em arrays primitivos que crescem por
+ * duplicação. Não aloca nada por vértice/face e pode ser reutilizado entre
+ * reconstruções com {@link #reset()}; apenas {@link #build()} cria os buffers
+ * finais da malha.
+ * <p>
+ * As coordenadas de textura têm três componentes (u, v, camada): a camada
+ * indica a textura do bloco no {@link BlockTextureArray}, pelo que blocos
+ * diferentes podem partilhar a mesma malha e o mesmo material.
+ */
+public class MeshBuilder {
+    private static final int INITIAL_QUADS = 256;
 
-import java.util.ArrayList;
-import java.util.List;
+    private float[] positions = new float[INITIAL_QUADS * 4 * 3];
+    private float[] normals = new float[INITIAL_QUADS * 4 * 3];
+    private float[] uvs = new float[INITIAL_QUADS * 4 * 3];
+    private int[] indices = new int[INITIAL_QUADS * 6];
+    private int vertexCount = 0;
+    private int indexCount = 0;
 
-public class MeshBuilder {
-    private final List<Float> positions = new ArrayList<>();
-    private final List<Float> normals = new ArrayList<>();
-    private final List<Float> uvs = new ArrayList<>();
-    private final List<Integer> indices = new ArrayList<>();
+    // UVs da face atual (u0,v0 .. u3,v3), reutilizados entre faces
+    private final float[] faceUV = new float[8];
 
     // Opcional: ativar aleatorização de UV por bloco para variedade
     private boolean randomizeUV = false;
 
+    // Cantos de cada face (4 x xyz em {0,1}), na ordem CCW usada pelos índices
+    private static final int[][] CORNERS = {
+            { 1, 0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1 }, // PX
+            { 0, 0, 1, 0, 1, 1, 0, 1, 0, 0, 0, 0 }, // NX
+            { 0, 1, 0, 0, 1, 1, 1, 1, 1, 1, 1, 0 }, // PY
+            { 1, 0, 0, 1, 0, 1, 0, 0, 1, 0, 0, 0 }, // NY
+            { 0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1, 1 }, // PZ
+            { 1, 0, 0, 0, 0, 0, 0, 1, 0, 1, 1, 0 }, // NZ
+    };
+    private static final float[][] NORMALS = {
+            { 1, 0, 0 }, { -1, 0, 0 }, { 0, 1, 0 }, { 0, -1, 0 }, { 0, 0, 1 }, { 0, 0, -1 }
+    };
+    // Eixo do mundo (0=x,1=y,2=z) ao longo do qual variam u e v em cada face
+    private static final int[] U_AXIS = { 2, 2, 0, 0, 1, 1 };
+    private static final int[] V_AXIS = { 1, 1, 2, 2, 0, 0 };
+    // UVs base dos quatro cantos de uma face unitária
+    private static final float[] BASE_UV = { 0, 0, 0, 1, 1, 1, 1, 0 };
+
     public void setRandomizeUV(boolean randomizeUV) {
         this.randomizeUV = randomizeUV;
     }
 
-    public int addVertex(Vector3f p, Vector3f n, Vector2f uv) {
-        int idx = positions.size() / 3;
-        positions.add(p.x);
-        positions.add(p.y);
-        positions.add(p.z);
-        normals.add(n.x);
-        normals.add(n.y);
-        normals.add(n.z);
-        uvs.add(uv.x);
-        uvs.add(uv.y);
-        return idx;
-    }
-
-    public void addQuad(Vector3f v0, Vector3f v1, Vector3f v2, Vector3f v3, Vector3f normal) {
-        int i0 = addVertex(v0, normal, new Vector2f(0, 0));
-        int i1 = addVertex(v1, normal, new Vector2f(0, 1));
-        int i2 = addVertex(v2, normal, new Vector2f(1, 1));
-        int i3 = addVertex(v3, normal, new Vector2f(1, 0));
-        // triângulos CCW
-        indices.add(i0);
-        indices.add(i1);
-        indices.add(i2);
-        indices.add(i0);
-        indices.add(i2);
-        indices.add(i3);
-    }
-
-    // Adicionar um quad com UVs explícitos
-    private void addQuadUV(Vector3f v0, Vector3f v1, Vector3f v2, Vector3f v3, Vector3f normal,
-            Vector2f uv0, Vector2f uv1, Vector2f uv2, Vector2f uv3) {
-        int i0 = addVertex(v0, normal, uv0);
-        int i1 = addVertex(v1, normal, uv1);
-        int i2 = addVertex(v2, normal, uv2);
-        int i3 = addVertex(v3, normal, uv3);
-        indices.add(i0);
-        indices.add(i1);
-        indices.add(i2);
-        indices.add(i0);
-        indices.add(i2);
-        indices.add(i3);
-    }
-
-    private static Vector2f transformUV(Vector2f uv, int rot, boolean flipU, boolean flipV) {
-        float u = uv.x;
-        float v = uv.y;
-        // Aplicar inversões primeiro
-        if (flipU)
-            u = 1f - u;
-        if (flipV)
-            v = 1f - v;
-        // Aplicar rotação em passos de 90 graus em torno do centro (0.5,0.5)
-        // Para rodar em torno do centro, mover para origem, rodar, mover de volta
-        float cu = u - 0.5f;
-        float cv = v - 0.5f;
-        float ru, rv;
-        switch (rot & 3) {
-            case 1 -> { // 90 deg
-                ru = cv;
-                rv = -cu;
-            }
-            case 2 -> { // 180 deg
-                ru = -cu;
-                rv = -cv;
-            }
-            case 3 -> { // 270 deg
-                ru = -cv;
-                rv = cu;
-            }
-            default -> { // 0 deg
-                ru = cu;
-                rv = cv;
+    /** Descarta a geometria acumulada mantendo a capacidade dos arrays. */
+    public void reset() {
+        vertexCount = 0;
+        indexCount = 0;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getTriangleCount() {
+        return indexCount / 3;
+    }
+
+    public boolean isEmpty() {
+        return indexCount == 0;
+    }
+
+    public int addVertex(float px, float py, float pz, float nx, float ny, float nz, float u, float v,
+            float layer) {
+        ensureVertexCapacity(vertexCount + 1);
+        int p = vertexCount * 3;
+        positions[p] = px;
+        positions[p + 1] = py;
+        positions[p + 2] = pz;
+        normals[p] = nx;
+        normals[p + 1] = ny;
+        normals[p + 2] = nz;
+        uvs[p] = u;
+        uvs[p + 1] = v;
+        uvs[p + 2] = layer;
+        return vertexCount++;
+    }
+
+    /** Rodar/inverter os UVs de faceUV em torno do centro (0.5,0.5). */
+    private void transformFaceUV(int rot, boolean flipU, boolean flipV) {
+        for (int k = 0; k < 8; k += 2) {
+            float u = faceUV[k];
+            float v = faceUV[k + 1];
+            // Aplicar inversões primeiro
+            if (flipU)
+                u = 1f - u;
+            if (flipV)
+                v = 1f - v;
+            // Aplicar rotação em passos de 90 graus em torno do centro
+            float cu = u - 0.5f;
+            float cv = v - 0.5f;
+            float ru, rv;
+            switch (rot & 3) {
+                case 1 -> { // 90 deg
+                    ru = cv;
+                    rv = -cu;
+                }
+                case 2 -> { // 180 deg
+                    ru = -cu;
+                    rv = -cv;
+                }
+                case 3 -> { // 270 deg
+                    ru = -cv;
+                    rv = cu;
+                }
+                default -> { // 0 deg
+                    ru = cu;
+                    rv = cv;
+                }
             }
+            faceUV[k] = ru + 0.5f;
+            faceUV[k + 1] = rv + 0.5f;
         }
-        return new Vector2f(ru + 0.5f, rv + 0.5f);
     }
 
-    public void addVoxelFace(int x, int y, int z, Face face) {
-        float xf = x, yf = y, zf = z;
-
-        int rot = 0;
-        boolean flipU = false;
-        boolean flipV = false;
+    public void addVoxelFace(int x, int y, int z, Face face, int layer) {
+        System.arraycopy(BASE_UV, 0, faceUV, 0, 8);
         if (randomizeUV) {
             int h = hash3(x, y, z);
-            rot = (h) & 3; // 0/90/180/270 graus
-            flipU = ((h >>> 2) & 1) != 0; // boolean
-            flipV = ((h >>> 3) & 1) != 0; // boolean
+            int rot = (h) & 3; // 0/90/180/270 graus
+            boolean flipU = ((h >>> 2) & 1) != 0; // boolean
+            boolean flipV = ((h >>> 3) & 1) != 0; // boolean
+            transformFaceUV(rot, flipU, flipV);
+        }
+        emitQuad(x, y, z, face, 1, 1, 1, layer);
+    }
+
+    /**
+     * Adiciona um retângulo de faces coplanares (meshing greedy) com origem no bloco
+     * (x,y,z) e extensões (sx,sy,sz) em blocos; o eixo da normal tem extensão 1.
+     * Os UVs escalam com a extensão para a textura (WrapMode.Repeat) repetir uma vez
+     * por bloco, com a mesma orientação de {@link #addVoxelFace} sem aleatorização.
+     */
+    public void addVoxelRect(int x, int y, int z, Face face, int sx, int sy, int sz, int layer) {
+        int f = face.ordinal();
+        float su = extent(U_AXIS[f], sx, sy, sz);
+        float sv = extent(V_AXIS[f], sx, sy, sz);
+        for (int k = 0; k < 8; k += 2) {
+            faceUV[k] = BASE_UV[k] * su;
+            faceUV[k + 1] = BASE_UV[k + 1] * sv;
         }
+        emitQuad(x, y, z, face, sx, sy, sz, layer);
+    }
+
+    private static float extent(int axis, int sx, int sy, int sz) {
+        return axis == 0 ? sx : (axis == 1 ? sy : sz);
+    }
 
-        // UVs base para uma face unitária
-        Vector2f uv00 = transformUV(new Vector2f(0f, 0f), rot, flipU, flipV);
-        Vector2f uv01 = transformUV(new Vector2f(0f, 1f), rot, flipU, flipV);
-        Vector2f uv11 = transformUV(new Vector2f(1f, 1f), rot, flipU, flipV);
-        Vector2f uv10 = transformUV(new Vector2f(1f, 0f), rot, flipU, flipV);
-
-        switch (face) {
-            case PX -> addQuadUV(
-                    new Vector3f(xf + 1, yf, zf), new Vector3f(xf + 1, yf + 1, zf),
-                    new Vector3f(xf + 1, yf + 1, zf + 1), new Vector3f(xf + 1, yf, zf + 1), FaceNormals.PX,
-                    uv00, uv01, uv11, uv10);
-            case NX -> addQuadUV(
-                    new Vector3f(xf, yf, zf + 1), new Vector3f(xf, yf + 1, zf + 1), new Vector3f(xf, yf + 1, zf),
-                    new Vector3f(xf, yf, zf), FaceNormals.NX,
-                    uv00, uv01, uv11, uv10);
-            case PY -> addQuadUV(
-                    new Vector3f(xf, yf + 1, zf), new Vector3f(xf, yf + 1, zf + 1),
-                    new Vector3f(xf + 1, yf + 1, zf + 1), new Vector3f(xf + 1, yf + 1, zf), FaceNormals.PY,
-                    uv00, uv01, uv11, uv10);
-            case NY -> addQuadUV(
-                    new Vector3f(xf + 1, yf, zf), new Vector3f(xf + 1, yf, zf + 1), new Vector3f(xf, yf, zf + 1),
-                    new Vector3f(xf, yf, zf), FaceNormals.NY,
-                    uv00, uv01, uv11, uv10);
-            case PZ -> addQuadUV(
-                    new Vector3f(xf, yf, zf + 1), new Vector3f(xf + 1, yf, zf + 1),
-                    new Vector3f(xf + 1, yf + 1, zf + 1), new Vector3f(xf, yf + 1, zf + 1), FaceNormals.PZ,
-                    uv00, uv01, uv11, uv10);
-            case NZ -> addQuadUV(
-                    new Vector3f(xf + 1, yf, zf), new Vector3f(xf, yf, zf), new Vector3f(xf, yf + 1, zf),
-                    new Vector3f(xf + 1, yf + 1, zf), FaceNormals.NZ,
-                    uv00, uv01, uv11, uv10);
+    // Escrever os 4 vértices (com os UVs de faceUV) e os 2 triângulos CCW
+    private void emitQuad(int x, int y, int z, Face face, int sx, int sy, int sz, int layer) {
+        int f = face.ordinal();
+        int[] c = CORNERS[f];
+        float[] n = NORMALS[f];
+        ensureVertexCapacity(vertexCount + 4);
+        ensureIndexCapacity(indexCount + 6);
+        int base = vertexCount;
+        for (int k = 0; k < 4; k++) {
+            addVertex(x + c[k * 3] * sx, y + c[k * 3 + 1] * sy, z + c[k * 3 + 2] * sz,
+                    n[0], n[1], n[2], faceUV[k * 2], faceUV[k * 2 + 1], layer);
         }
+        indices[indexCount++] = base;
+        indices[indexCount++] = base + 1;
+        indices[indexCount++] = base + 2;
+        indices[indexCount++] = base;
+        indices[indexCount++] = base + 2;
+        indices[indexCount++] = base + 3;
+    }
+
+    private void ensureVertexCapacity(int vertices) {
+        if (vertices * 3 <= positions.length)
+            return;
+        int cap = Math.max(vertices, positions.length / 3 * 2);
+        positions = Arrays.copyOf(positions, cap * 3);
+        normals = Arrays.copyOf(normals, cap * 3);
+        uvs = Arrays.copyOf(uvs, cap * 3);
+    }
+
+    private void ensureIndexCapacity(int count) {
+        if (count <= indices.length)
+            return;
+        indices = Arrays.copyOf(indices, Math.max(count, indices.length * 2));
     }
 
     private static int hash3(int x, int y, int z) {
@@ -153,38 +205,38 @@ public class MeshBuilder {
         return h;
     }
 
+    /**
+     * Copia a geometria acumulada para buffers diretos de tamanho exato. Usa índices
+     * de 16 bits quando o número de vértices o permite.
+     */
     public Mesh build() {
         Mesh mesh = new Mesh();
-        float[] pos = toFloatArray(positions);
-        float[] nor = toFloatArray(normals);
-        float[] tc = toFloatArray(uvs);
-        int[] idx = indices.stream().mapToInt(Integer::intValue).toArray();
-        mesh.setBuffer(VertexBuffer.Type.Position, 3, pos);
-        mesh.setBuffer(VertexBuffer.Type.Normal, 3, nor);
-        mesh.setBuffer(VertexBuffer.Type.TexCoord, 2, tc);
-        mesh.setBuffer(VertexBuffer.Type.Index, 3, idx);
+        mesh.setBuffer(VertexBuffer.Type.Position, 3, copy(positions, vertexCount * 3));
+        mesh.setBuffer(VertexBuffer.Type.Normal, 3, copy(normals, vertexCount * 3));
+        mesh.setBuffer(VertexBuffer.Type.TexCoord, 3, copy(uvs, vertexCount * 3));
+        if (vertexCount <= 0xFFFF) {
+            ShortBuffer idx = BufferUtils.createShortBuffer(indexCount);
+            for (int i = 0; i < indexCount; i++)
+                idx.put((short) indices[i]);
+            idx.flip();
+            mesh.setBuffer(VertexBuffer.Type.Index, 3, idx);
+        } else {
+            IntBuffer idx = BufferUtils.createIntBuffer(indexCount);
+            idx.put(indices, 0, indexCount).flip();
+            mesh.setBuffer(VertexBuffer.Type.Index, 3, idx);
+        }
         mesh.updateBound();
         mesh.updateCounts();
         return mesh;
     }
 
-    private static float[] toFloatArray(List<Float> list) {
-        float[] arr = new float[list.size()];
-        for (int i = 0; i < arr.length; i++)
-            arr[i] = list.get(i);
-        return arr;
+    private static FloatBuffer copy(float[] src, int length) {
+        FloatBuffer fb = BufferUtils.createFloatBuffer(length);
+        fb.put(src, 0, length).flip();
+        return fb;
     }
 
     public enum Face {
         PX, NX, PY, NY, PZ, NZ
     }
-
-    public static class FaceNormals {
-        public static final Vector3f PX = new Vector3f(1, 0, 0);
-        public static final Vector3f NX = new Vector3f(-1, 0, 0);
-        public static final Vector3f PY = new Vector3f(0, 1, 0);
-        public static final Vector3f NY = new Vector3f(0, -1, 0);
-        public static final Vector3f PZ = new Vector3f(0, 0, 1);
-        public static final Vector3f NZ = new Vector3f(0, 0, -1);
-    }
 }
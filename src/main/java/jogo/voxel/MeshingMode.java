@@ -0,0 +1,15 @@
+package jogo.voxel;
+
+/**
+ * Estratégia de construção da malha de um chunk.
+ * NAIVE emite um quad por face exposta; GREEDY funde faces coplanares do mesmo
+ * tipo de bloco em retângulos máximos.
+ */
+public enum MeshingMode {
+    NAIVE, GREEDY;
+
+    /** Modo seguinte (para alternar em runtime e comparar). */
+    public MeshingMode next() {
+        return this == NAIVE ? GREEDY : NAIVE;
+    }
+}
@@ -1,7 +1,6 @@
 package jogo.voxel;
 
-import com.jme3.asset.AssetManager;
-import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
 
 public abstract class VoxelBlockType {
     private final String name;
@@ -27,16 +26,11 @@ public abstract class VoxelBlockType {
     public float getHardness() { return 1.0f; }
 
     /**
-     * Returns the Material for this block type. Override in subclasses for custom materials.
+     * Texture asset for this block, packed as one layer of the shared chunk
+     * texture array. Null for invisible blocks (empty layer).
      */
-    public abstract Material getMaterial(AssetManager assetManager);
+    public String getTexturePath() { return null; }
 
-    /**
-     * Returns the Material for this block type at a specific block position.
-     * Default implementation ignores the position for backward compatibility.
-     * Subclasses can override to use blockPos.
-     */
-    public Material getMaterial(AssetManager assetManager, jogo.framework.math.Vec3 blockPos) {
-        return getMaterial(assetManager);
-    }
+    /** Colour multiplied into the texture when its layer is built. */
+    public ColorRGBA getTint() { return ColorRGBA.White; }
 }
@@ -0,0 +1,32 @@
+package jogo.voxel;
+
+/**
+ * Resultado mutável de {@link VoxelWorld#raycast}. O chamador guarda uma
+ * instância e reutiliza-a entre raios, pelo que um raycast não aloca nada.
+ */
+public final class VoxelHit {
+    public boolean hit;
+    // Célula atingida
+    public int x, y, z;
+    // Normal da face atravessada (0,0,0 se a origem já está dentro do bloco)
+    public int normalX, normalY, normalZ;
+    public float distance;
+
+    void set(int x, int y, int z, int normalX, int normalY, int normalZ, float distance) {
+        this.hit = true;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.normalX = normalX;
+        this.normalY = normalY;
+        this.normalZ = normalZ;
+        this.distance = distance;
+    }
+
+    public void clear() {
+        hit = false;
+        x = y = z = 0;
+        normalX = normalY = normalZ = 0;
+        distance = 0f;
+    }
+}
@@ -1,22 +1,28 @@
 package jogo.voxel;
 
+import com.jme3.app.Application;
 import com.jme3.asset.AssetManager;
 import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.objects.PhysicsRigidBody;
 import com.jme3.material.Material;
 import com.jme3.material.RenderState;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
-import com.jme3.scene.Geometry;
-import com.jme3.scene.Mesh;
 import com.jme3.scene.Node;
-import com.jme3.texture.Texture2D;
-import jogo.util.ProcTextures;
 import jogo.util.FastNoiseLite;
+import jogo.util.LongMap;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import jogo.util.Hit;
 
 public class VoxelWorld {
@@ -25,56 +31,156 @@ public class VoxelWorld {
     private final VoxelPalette palette;
 
     private final Node node = new Node("VoxelWorld");
-    private final Map<Byte, Geometry> geoms = new HashMap<>();
-    private final Map<Byte, Material> materials = new HashMap<>();
+    // Material único partilhado por todos os chunks (texture array com uma camada por bloco)
+    private Material blockMaterial;
 
     private boolean lit = true; // Sombreamento: Ligado por omissão
     private boolean wireframe = false; // Wireframe: Desligado por omissão
     private boolean culling = true; // Culling: Ligado por omissão
     private int groundHeight = 8; // nível base Y
     private int seed = 123456; // Semente por omissão
+    private MeshingMode meshingMode = MeshingMode.GREEDY; // Meshing greedy por omissão
 
     private final int chunkSize = Chunk.SIZE;
-    private final int chunkCountX, chunkCountY, chunkCountZ;
-    private final Chunk[][][] chunks;
+    private final int chunkCountY;
+    // Limites horizontais em chunks; num mundo infinito (bounded == false) não se aplicam
+    private final boolean bounded;
+    private final int chunkCountX, chunkCountZ;
+    // Chunks carregados, indexados por chunkKey(cx, cy, cz); aceita coordenadas negativas
+    private final LongMap<Chunk> chunks = new LongMap<>(1024);
+    // Colunas (cx, cz) já geradas, indexadas por columnKey(cx, cz)
+    private final Set<Long> loadedColumns = new HashSet<>();
+    // Chunks editados pelo jogador e descarregados: reutilizados em vez de regenerados
+    private final Map<Long, Chunk> retiredChunks = new HashMap<>();
+    private final FastNoiseLite noise;
 
+    // Heightmap: y do bloco sólido mais alto (-1 se nenhum) por (x,z), um short[16*16]
+    // por coluna de chunks carregada; a última coluna consultada fica em cache
+    private final LongMap<short[]> heightmaps = new LongMap<>();
+    private long cachedHeightsKey;
+    private short[] cachedHeights;
+
+    // Streaming em torno do jogador (apenas mundos infinitos)
+    private int viewDistance = 8; // raio em chunks
+    private int unloadMargin = 2; // histerese: descarregar só além de viewDistance + margem
+    private int maxColumnsPerFrame = 2; // colunas geradas por frame
+    private int spawnX, spawnZ;
+    private int centerX = Integer.MIN_VALUE, centerZ = Integer.MIN_VALUE;
+    private final ArrayDeque<Long> pendingColumns = new ArrayDeque<>();
+
+    // Física por proximidade: só chunks perto de corpos dinâmicos têm corpo estático
+    private int physicsRadius = 1; // em chunks (Chebyshev) em torno de cada corpo dinâmico
+    private int physicsReleaseMargin = 1; // histerese: remover só além de raio + margem
+    private final Set<Chunk> physicsChunks = new HashSet<>();
+    // Corpos dinâmicos registados (ex.: o do jogador), para não pedir a lista ao espaço em cada frame
+    private final List<PhysicsRigidBody> dynamicBodies = new ArrayList<>();
+    private int[] anchors = new int[3 * 4]; // chunk (cx, cy, cz) de cada corpo dinâmico
+    private int anchorCount = 0;
+    private final Vector3f anchorPos = new Vector3f();
+
+    // Meshing em threads de trabalho; sem Application as reconstruções são síncronas
+    private final AsyncChunkMesher mesher = new AsyncChunkMesher(AsyncChunkMesher.defaultThreadCount());
+    private Application app;
+    // Fila de chunks sujos esvaziada por processDirtyChunks
+    private final DirtyChunkQueue dirtyQueue = new DirtyChunkQueue();
+    private boolean physicsChanged = false;
+    // Diagnóstico extra na consola (ex.: memória de vóxeis depois de gerar)
+    private boolean debugLogging = false;
+    // Uma linha na consola por malha de chunk aplicada e por corpo de colisão criado
+    private boolean chunkLogging = false;
+    // Avisados quando o heightmap muda (edição de blocos, colunas carregadas ou descarregadas)
+    private final List<SurfaceListener> surfaceListeners = new ArrayList<>();
+
+    /** Recebe as regiões de colunas (em blocos, inclusivas) cuja superfície mudou. */
+    public interface SurfaceListener {
+        void surfaceChanged(int minX, int minZ, int maxX, int maxZ);
+    }
+
+    /** Mundo limitado a sizeX x sizeY x sizeZ blocos (gerado de uma vez). */
     public VoxelWorld(AssetManager assetManager, int sizeX, int sizeY, int sizeZ) {
+        this(assetManager, sizeX, sizeY, sizeZ, true);
+    }
+
+    /**
+     * Mundo infinito em X/Z com altura sizeY. As colunas de chunks são geradas e
+     * descarregadas em torno do jogador por {@link #updateStreaming}.
+     */
+    public VoxelWorld(AssetManager assetManager, int sizeY) {
+        this(assetManager, 0, sizeY, 0, false);
+    }
+
+    private VoxelWorld(AssetManager assetManager, int sizeX, int sizeY, int sizeZ, boolean bounded) {
         this.assetManager = assetManager;
         this.sizeX = sizeX;
         this.sizeY = sizeY;
         this.sizeZ = sizeZ;
+        this.bounded = bounded;
         this.palette = VoxelPalette.defaultPalette();
         this.chunkCountX = (int) Math.ceil(sizeX / (float) chunkSize);
         this.chunkCountY = (int) Math.ceil(sizeY / (float) chunkSize);
         this.chunkCountZ = (int) Math.ceil(sizeZ / (float) chunkSize);
-        this.chunks = new Chunk[chunkCountX][chunkCountY][chunkCountZ];
-        for (int cx = 0; cx < chunkCountX; cx++)
-            for (int cy = 0; cy < chunkCountY; cy++)
-                for (int cz = 0; cz < chunkCountZ; cz++)
-                    chunks[cx][cy][cz] = new Chunk(cx, cy, cz);
+        this.spawnX = sizeX / 2;
+        this.spawnZ = sizeZ / 2;
+        this.noise = new FastNoiseLite(seed);
+        noise.SetNoiseType(FastNoiseLite.NoiseType.OpenSimplex2);
+        noise.SetFrequency(0.01f); // Ajustar para escala do terreno
         initMaterials();
     }
 
+    /** Chave de um chunk: 26 bits para cx e cz (com sinal) e 12 bits para cy. */
+    public static long chunkKey(int cx, int cy, int cz) {
+        return ((cx & 0x3FFFFFFL) << 38) | ((cz & 0x3FFFFFFL) << 12) | (cy & 0xFFFL);
+    }
+
+    private static long columnKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    private static int columnX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int columnZ(long key) {
+        return (int) key;
+    }
+
     // Auxiliar para obter chunk e coordenadas locais
     private Chunk getChunk(int x, int y, int z) {
-        int cx = x / chunkSize;
-        int cy = y / chunkSize;
-        int cz = z / chunkSize;
-        if (cx < 0 || cy < 0 || cz < 0 || cx >= chunkCountX || cy >= chunkCountY || cz >= chunkCountZ)
+        return getChunkAt(Math.floorDiv(x, chunkSize), Math.floorDiv(y, chunkSize), Math.floorDiv(z, chunkSize));
+    }
+
+    private Chunk getChunkAt(int cx, int cy, int cz) {
+        if (cy < 0 || cy >= chunkCountY)
+            return null;
+        if (bounded && (cx < 0 || cz < 0 || cx >= chunkCountX || cz >= chunkCountZ))
             return null;
-        return chunks[cx][cy][cz];
+        return chunks.get(chunkKey(cx, cy, cz));
+    }
+
+    /**
+     * Snapshot do chunk com a margem de um vóxel dos seis vizinhos, para que o
+     * meshing descarte faces de fronteira tapadas pelo chunk ao lado.
+     */
+    ChunkSnapshot snapshot(Chunk c) {
+        int cx = c.getChunkX(), cy = c.getChunkY(), cz = c.getChunkZ();
+        Chunk[] neighbours = {
+                getChunkAt(cx + 1, cy, cz), getChunkAt(cx - 1, cy, cz),
+                getChunkAt(cx, cy + 1, cz), getChunkAt(cx, cy - 1, cz),
+                getChunkAt(cx, cy, cz + 1), getChunkAt(cx, cy, cz - 1)
+        };
+        return new ChunkSnapshot(c, neighbours);
     }
 
     private int lx(int x) {
-        return x % chunkSize;
+        return Math.floorMod(x, chunkSize);
     }
 
     private int ly(int y) {
-        return y % chunkSize;
+        return Math.floorMod(y, chunkSize);
     }
 
     private int lz(int z) {
-        return z % chunkSize;
+        return Math.floorMod(z, chunkSize);
     }
 
     // Acesso a blocos
@@ -91,7 +197,9 @@ public class VoxelWorld {
         Chunk c = getChunk(x, y, z);
         if (c != null) {
             c.set(lx(x), ly(y), lz(z), id);
-            c.markDirty();
+            markChunkDirty(c);
+            c.markModified();
+            updateHeight(x, y, z, id);
             // Se na borda do chunk, marcar vizinho como sujo
             if (lx(x) == 0)
                 markNeighborChunkDirty(x - 1, y, z);
@@ -111,7 +219,13 @@ public class VoxelWorld {
     private void markNeighborChunkDirty(int x, int y, int z) {
         Chunk n = getChunk(x, y, z);
         if (n != null)
-            n.markDirty();
+            markChunkDirty(n);
+    }
+
+    // Marca o chunk como sujo e põe-no (uma só vez) na fila de reconstrução
+    private void markChunkDirty(Chunk chunk) {
+        chunk.markDirty();
+        dirtyQueue.add(chunk);
     }
 
     public boolean breakAt(int x, int y, int z) {
@@ -125,51 +239,225 @@ public class VoxelWorld {
         return node;
     }
 
+    /**
+     * Gera o terreno inicial: todas as colunas num mundo limitado, ou as colunas
+     * dentro da distância de visão em torno do spawn num mundo infinito.
+     */
     public void generateLayers() {
-        FastNoiseLite noise = new FastNoiseLite(seed);
-        noise.SetNoiseType(FastNoiseLite.NoiseType.OpenSimplex2);
-        noise.SetFrequency(0.01f); // Ajustar para escala do terreno
+        long start = System.nanoTime();
+        if (bounded) {
+            for (int cx = 0; cx < chunkCountX; cx++)
+                for (int cz = 0; cz < chunkCountZ; cz++)
+                    loadColumn(cx, cz);
+        } else {
+            recenter(Math.floorDiv(spawnX, chunkSize), Math.floorDiv(spawnZ, chunkSize), null);
+            while (!pendingColumns.isEmpty()) {
+                long key = pendingColumns.poll();
+                loadColumn(columnX(key), columnZ(key));
+            }
+        }
+        System.out.println("Generated " + loadedColumns.size() + " chunk columns in "
+                + ((System.nanoTime() - start) / 1_000_000.0) + " ms");
+        if (debugLogging)
+            printStorageStats();
+    }
 
-        for (int x = 0; x < sizeX; x++) {
-            for (int z = 0; z < sizeZ; z++) {
-                // Determinar altura: base 16 + variação +/- 8
-                float noiseVal = noise.GetNoise(x, z);
-                int height = (int) (16 + noiseVal * 8);
-
-                for (int y = 0; y < sizeY; y++) {
-                    byte id = VoxelPalette.AIR_ID;
-                    if (y <= height) {
-                        if (y == height) {
-                            id = VoxelPalette.DIRT_ID; // Topo: Terra
-                        } else if (y > height - 3) {
-                            id = VoxelPalette.DIRT_ID; // 3 camadas de terra
-                        } else {
-                            id = VoxelPalette.STONE_ID; // Pedra abaixo
-                        }
-                    }
-                    setBlock(x, y, z, id);
+    /**
+     * Streaming de um mundo infinito: descarrega colunas além da distância de
+     * visão (com margem de histerese) e gera até maxColumnsPerFrame novas
+     * colunas por frame, do anel mais próximo para fora. As colunas novas e as
+     * vizinhas entram na fila de reconstrução ({@link #processDirtyChunks}).
+     * Chamar uma vez por frame com a posição do jogador.
+     */
+    public void updateStreaming(float px, float pz, PhysicsSpace physicsSpace) {
+        if (bounded)
+            return;
+        int pcx = Math.floorDiv((int) Math.floor(px), chunkSize);
+        int pcz = Math.floorDiv((int) Math.floor(pz), chunkSize);
+        if (pcx != centerX || pcz != centerZ)
+            recenter(pcx, pcz, physicsSpace);
+        for (int i = 0; i < maxColumnsPerFrame && !pendingColumns.isEmpty(); i++) {
+            long key = pendingColumns.poll();
+            int cx = columnX(key), cz = columnZ(key);
+            loadColumn(cx, cz);
+            // As vizinhas já carregadas mostravam faces viradas para o vazio
+            markColumnDirty(cx + 1, cz);
+            markColumnDirty(cx - 1, cz);
+            markColumnDirty(cx, cz + 1);
+            markColumnDirty(cx, cz - 1);
+        }
+    }
+
+    // Novo centro: descarregar colunas distantes e refazer a fila de colunas em falta por anéis
+    private void recenter(int pcx, int pcz, PhysicsSpace physicsSpace) {
+        centerX = pcx;
+        centerZ = pcz;
+        int keep = viewDistance + unloadMargin;
+        List<Long> evict = new ArrayList<>();
+        for (long key : loadedColumns) {
+            int dx = columnX(key) - pcx, dz = columnZ(key) - pcz;
+            if (dx * dx + dz * dz > keep * keep)
+                evict.add(key);
+        }
+        for (long key : evict)
+            unloadColumn(columnX(key), columnZ(key), physicsSpace);
+
+        pendingColumns.clear();
+        for (int r = 0; r <= viewDistance; r++) {
+            for (int dx = -r; dx <= r; dx++) {
+                for (int dz = -r; dz <= r; dz++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != r || dx * dx + dz * dz > viewDistance * viewDistance)
+                        continue;
+                    long key = columnKey(pcx + dx, pcz + dz);
+                    if (!loadedColumns.contains(key))
+                        pendingColumns.add(key);
                 }
-                // Geração de árvores
-                if (height < sizeY - 6 && x > 2 && x < sizeX - 2 && z > 2 && z < sizeZ - 2) {
-                    // 1% de chance de uma árvore
-                    if (Math.random() < 0.01) {
-                        generateTree(x, height + 1, z);
-                    }
+            }
+        }
+    }
+
+    private void loadColumn(int cx, int cz) {
+        if (!loadedColumns.add(columnKey(cx, cz)))
+            return;
+        int[] heights = new int[chunkSize * chunkSize];
+        for (int x = 0; x < chunkSize; x++)
+            for (int z = 0; z < chunkSize; z++)
+                heights[x * chunkSize + z] = terrainHeight(cx * chunkSize + x, cz * chunkSize + z);
+        for (int cy = 0; cy < chunkCountY; cy++) {
+            long key = chunkKey(cx, cy, cz);
+            Chunk chunk = retiredChunks.remove(key);
+            if (chunk == null) {
+                chunk = new Chunk(cx, cy, cz);
+                generateChunk(chunk, heights);
+            }
+            chunks.put(key, chunk);
+            node.attachChild(chunk.getNode());
+            dirtyQueue.add(chunk); // novo (ou reposto) e ainda sem malha
+        }
+        heightmaps.put(columnKey(cx, cz), computeHeights(cx, cz));
+        fireColumnChanged(cx, cz);
+    }
+
+    private void unloadColumn(int cx, int cz, PhysicsSpace physicsSpace) {
+        loadedColumns.remove(columnKey(cx, cz));
+        heightmaps.remove(columnKey(cx, cz));
+        cachedHeights = null;
+        for (int cy = 0; cy < chunkCountY; cy++) {
+            long key = chunkKey(cx, cy, cz);
+            Chunk chunk = chunks.remove(key);
+            if (chunk == null)
+                continue;
+            physicsChunks.remove(chunk);
+            mesher.cancel(chunk);
+            chunk.unload(physicsSpace);
+            if (chunk.isModified())
+                retiredChunks.put(key, chunk);
+        }
+        fireColumnChanged(cx, cz);
+    }
+
+    private void fireColumnChanged(int cx, int cz) {
+        int x0 = cx * chunkSize, z0 = cz * chunkSize;
+        fireSurfaceChanged(x0, z0, x0 + chunkSize - 1, z0 + chunkSize - 1);
+    }
+
+    private void fireSurfaceChanged(int minX, int minZ, int maxX, int maxZ) {
+        for (int i = 0; i < surfaceListeners.size(); i++)
+            surfaceListeners.get(i).surfaceChanged(minX, minZ, maxX, maxZ);
+    }
+
+    public void addSurfaceListener(SurfaceListener listener) {
+        surfaceListeners.add(listener);
+    }
+
+    public void removeSurfaceListener(SurfaceListener listener) {
+        surfaceListeners.remove(listener);
+    }
+
+    /** Avisa o listener de cada coluna já carregada (para quem se regista depois da geração). */
+    public void replaySurface(SurfaceListener listener) {
+        for (long key : loadedColumns) {
+            int x0 = columnX(key) * chunkSize, z0 = columnZ(key) * chunkSize;
+            listener.surfaceChanged(x0, z0, x0 + chunkSize - 1, z0 + chunkSize - 1);
+        }
+    }
+
+    private void markColumnDirty(int cx, int cz) {
+        for (int cy = 0; cy < chunkCountY; cy++) {
+            Chunk chunk = getChunkAt(cx, cy, cz);
+            if (chunk != null)
+                markChunkDirty(chunk);
+        }
+    }
+
+    // Altura do terreno: base 16 + variação +/- 8
+    private int terrainHeight(int x, int z) {
+        return (int) (16 + noise.GetNoise(x, z) * 8);
+    }
+
+    // Árvore determinística por coluna (~1%), para regenerar igual após descarregar
+    private boolean hasTree(int x, int z) {
+        if (bounded && (x <= 2 || x >= sizeX - 2 || z <= 2 || z >= sizeZ - 2))
+            return false;
+        int h = x * 73856093 ^ z * 83492791 ^ seed;
+        h ^= (h >>> 13);
+        h *= 0x5bd1e995;
+        h ^= (h >>> 15);
+        return (h & 0xFFFF) < 655;
+    }
+
+    // Preenche um chunk com terreno e com as partes das árvores (próprias ou vizinhas) que lhe cabem
+    private void generateChunk(Chunk chunk, int[] heights) {
+        int x0 = chunk.getChunkX() * chunkSize;
+        int y0 = chunk.getChunkY() * chunkSize;
+        int z0 = chunk.getChunkZ() * chunkSize;
+        for (int x = 0; x < chunkSize; x++) {
+            for (int z = 0; z < chunkSize; z++) {
+                int height = heights[x * chunkSize + z];
+                for (int y = 0; y < chunkSize && y0 + y <= height && y0 + y < sizeY; y++) {
+                    int wy = y0 + y;
+                    // Topo e 3 camadas de terra, pedra abaixo
+                    byte id = wy > height - 3 ? VoxelPalette.DIRT_ID : VoxelPalette.STONE_ID;
+                    chunk.set(x, y, z, id);
                 }
             }
         }
+        // Geração de árvores (a copa estende-se 2 blocos para fora do tronco)
+        for (int x = x0 - 2; x < x0 + chunkSize + 2; x++) {
+            for (int z = z0 - 2; z < z0 + chunkSize + 2; z++) {
+                if (!hasTree(x, z))
+                    continue;
+                int height = terrainHeight(x, z);
+                if (height < sizeY - 6)
+                    generateTree(chunk, x, height + 1, z);
+            }
+        }
+    }
+
+    // Resumo da memória de vóxeis por codificação (comparar com 4096 bytes/chunk)
+    private void printStorageStats() {
+        int[] perBits = new int[9];
+        long bytes = 0;
+        for (Chunk chunk : chunks) {
+            ChunkStorage st = chunk.getStorage();
+            perBits[st.getBitsPerVoxel()]++;
+            bytes += st.estimateBytes();
+        }
+        int total = chunks.size();
+        System.out.println("Voxel storage: " + total + " chunks, uniform=" + perBits[0] + ", 1bit=" + perBits[1]
+                + ", 2bit=" + perBits[2] + ", 4bit=" + perBits[4] + ", 8bit=" + perBits[8] + ", ~" + (bytes / 1024)
+                + " KiB (byte[16][16][16]: ~" + ((long) total * ChunkStorage.VOLUME / 1024) + " KiB)");
     }
 
-    private void generateTree(int x, int y, int z) {
+    private void generateTree(Chunk chunk, int x, int y, int z) {
         // Tronco: 4 blocos para cima
         int trunkHeight = 4;
         for (int i = 0; i < trunkHeight; i++) {
-            setBlock(x, y + i, z, VoxelPalette.LOG_ID);
+            setInChunk(chunk, x, y + i, z, VoxelPalette.LOG_ID);
         }
 
         // Folhas: 3x3 nas 2 camadas superiores do tronco, mais 1 no topo
         int leavesStart = y + 2;
-        int leavesEnd = y + trunkHeight; // inclusive of top layer logic
 
         // Camada 1 (Larga): y + 2
         for (int dx = -2; dx <= 2; dx++) {
@@ -179,55 +467,143 @@ public class VoxelWorld {
                     continue; // Ignorar cantos para aspeto arredondado
                 if (dx == 0 && dz == 0)
                     continue; // Tronco está aqui
-                setBlock(x + dx, leavesStart, z + dz, VoxelPalette.LEAVES_ID);
-                setBlock(x + dx, leavesStart + 1, z + dz, VoxelPalette.LEAVES_ID);
+                setInChunk(chunk, x + dx, leavesStart, z + dz, VoxelPalette.LEAVES_ID);
+                setInChunk(chunk, x + dx, leavesStart + 1, z + dz, VoxelPalette.LEAVES_ID);
             }
         }
 
         // Camada Superior: y + 4 (acima do tronco)
-        setBlock(x, y + trunkHeight, z, VoxelPalette.LEAVES_ID);
-        setBlock(x + 1, y + trunkHeight, z, VoxelPalette.LEAVES_ID);
-        setBlock(x - 1, y + trunkHeight, z, VoxelPalette.LEAVES_ID);
-        setBlock(x, y + trunkHeight, z + 1, VoxelPalette.LEAVES_ID);
-        setBlock(x, y + trunkHeight, z - 1, VoxelPalette.LEAVES_ID);
+        setInChunk(chunk, x, y + trunkHeight, z, VoxelPalette.LEAVES_ID);
+        setInChunk(chunk, x + 1, y + trunkHeight, z, VoxelPalette.LEAVES_ID);
+        setInChunk(chunk, x - 1, y + trunkHeight, z, VoxelPalette.LEAVES_ID);
+        setInChunk(chunk, x, y + trunkHeight, z + 1, VoxelPalette.LEAVES_ID);
+        setInChunk(chunk, x, y + trunkHeight, z - 1, VoxelPalette.LEAVES_ID);
         // Adicionar um pouco mais de altura?
-        setBlock(x, y + trunkHeight + 1, z, VoxelPalette.LEAVES_ID);
+        setInChunk(chunk, x, y + trunkHeight + 1, z, VoxelPalette.LEAVES_ID);
     }
 
+    // Escrita de geração: ignora blocos fora do chunk (pertencem a outra coluna)
+    private void setInChunk(Chunk chunk, int x, int y, int z, byte id) {
+        int lx = x - chunk.getChunkX() * chunkSize;
+        int ly = y - chunk.getChunkY() * chunkSize;
+        int lz = z - chunk.getChunkZ() * chunkSize;
+        if (lx < 0 || ly < 0 || lz < 0 || lx >= chunkSize || ly >= chunkSize || lz >= chunkSize || y >= sizeY)
+            return;
+        chunk.set(lx, ly, lz, id);
+    }
+
+    /** Y do bloco sólido mais alto da coluna (x,z), ou -1; consulta O(1) ao heightmap. */
     public int getTopSolidY(int x, int z) {
-        if (x < 0 || z < 0 || x >= sizeX || z >= sizeZ)
+        if (bounded && (x < 0 || z < 0 || x >= sizeX || z >= sizeZ))
             return -1;
-        for (int y = sizeY - 1; y >= 0; y--) {
+        short[] heights = columnHeights(Math.floorDiv(x, chunkSize), Math.floorDiv(z, chunkSize));
+        return heights != null ? heights[lx(x) * chunkSize + lz(z)] : -1;
+    }
+
+    private short[] columnHeights(int cx, int cz) {
+        long key = columnKey(cx, cz);
+        if (cachedHeights != null && cachedHeightsKey == key)
+            return cachedHeights;
+        short[] heights = heightmaps.get(key);
+        if (heights != null) {
+            cachedHeightsKey = key;
+            cachedHeights = heights;
+        }
+        return heights;
+    }
+
+    private short[] computeHeights(int cx, int cz) {
+        short[] heights = new short[chunkSize * chunkSize];
+        for (int x = 0; x < chunkSize; x++)
+            for (int z = 0; z < chunkSize; z++)
+                heights[x * chunkSize + z] = (short) scanTopSolid(cx * chunkSize + x, cz * chunkSize + z,
+                        sizeY - 1);
+        return heights;
+    }
+
+    // Procura para baixo a partir de fromY o primeiro bloco sólido
+    private int scanTopSolid(int x, int z, int fromY) {
+        for (int y = fromY; y >= 0; y--) {
             if (palette.get(getBlock(x, y, z)).isSolid())
                 return y;
         }
         return -1;
     }
 
+    // Atualização incremental do heightmap após setBlock
+    private void updateHeight(int x, int y, int z, byte id) {
+        short[] heights = columnHeights(Math.floorDiv(x, chunkSize), Math.floorDiv(z, chunkSize));
+        if (heights == null)
+            return;
+        int i = lx(x) * chunkSize + lz(z);
+        short before = heights[i];
+        if (palette.get(id).isSolid()) {
+            if (y > heights[i])
+                heights[i] = (short) y;
+        } else if (y == heights[i]) {
+            heights[i] = (short) scanTopSolid(x, z, y - 1);
+        }
+        if (heights[i] != before)
+            fireSurfaceChanged(x, z, x, z);
+    }
+
     public Vector3f getRecommendedSpawn() {
-        int cx = sizeX / 2;
-        int cz = sizeZ / 2;
+        int cx = spawnX;
+        int cz = spawnZ;
         int ty = getTopSolidY(cx, cz);
         if (ty < 0)
             ty = groundHeight;
         return new Vector3f(cx + 0.5f, ty + 3.0f, cz + 0.5f);
     }
 
+    /** Coluna (em blocos) onde o jogador nasce; num mundo infinito centra a geração inicial. */
+    public void setSpawnColumn(int x, int z) {
+        this.spawnX = x;
+        this.spawnZ = z;
+    }
+
+    public int getViewDistance() {
+        return viewDistance;
+    }
+
+    /** Raio de streaming em chunks; aplica-se no próximo {@link #updateStreaming}. */
+    public void setViewDistance(int viewDistance) {
+        this.viewDistance = Math.max(1, viewDistance);
+        centerX = Integer.MIN_VALUE; // forçar recalcular anéis e descargas
+    }
+
+    public void setMaxColumnsPerFrame(int maxColumnsPerFrame) {
+        this.maxColumnsPerFrame = Math.max(1, maxColumnsPerFrame);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /** Número de chunks atualmente carregados. */
+    public int getLoadedChunkCount() {
+        return chunks.size();
+    }
+
     private void initMaterials() {
-        // Material único para blocos de PEDRA
-        Texture2D tex = ProcTextures.checker(128, 4, ColorRGBA.Gray, ColorRGBA.DarkGray);
-        materials.put(VoxelPalette.STONE_ID, makeLitTex(tex, 0.08f, 16f));
+        blockMaterial = new Material(assetManager, BlockTextureArray.MAT_DEF);
+        blockMaterial.setTexture("ColorMap", BlockTextureArray.build(assetManager, palette));
+        applyRenderFlags(blockMaterial);
     }
 
-    private Material makeLitTex(Texture2D tex, float spec, float shininess) {
-        Material m = new Material(assetManager, "Common/MatDefs/Light/Lighting.j3md");
-        m.setTexture("DiffuseMap", tex);
-        m.setBoolean("UseMaterialColors", true);
-        m.setColor("Diffuse", ColorRGBA.White);
-        m.setColor("Specular", ColorRGBA.White.mult(spec));
-        m.setFloat("Shininess", shininess);
-        applyRenderFlags(m);
-        return m;
+    /** Material partilhado pelas malhas de todos os chunks. */
+    public Material getBlockMaterial() {
+        return blockMaterial;
+    }
+
+    /**
+     * Luz usada pelo material dos chunks, que não lê as luzes da cena; deve
+     * coincidir com a DirectionalLight/AmbientLight do mundo.
+     */
+    public void setSunLight(Vector3f direction, ColorRGBA sunColor, ColorRGBA ambientColor) {
+        blockMaterial.setVector3("SunDirection", direction);
+        blockMaterial.setColor("SunColor", sunColor);
+        blockMaterial.setColor("AmbientColor", ambientColor);
     }
 
     private void applyRenderFlags(Material m) {
@@ -236,160 +612,292 @@ public class VoxelWorld {
         m.getAdditionalRenderState().setWireframe(wireframe);
     }
 
+    /**
+     * Constrói as malhas de todos os chunks em paralelo no pool de meshing e
+     * anexa-as na thread atual quando todas terminarem.
+     */
     public void buildMeshes() {
+        long start = System.nanoTime();
         node.detachAllChildren();
-        for (int cx = 0; cx < chunkCountX; cx++) {
-            for (int cy = 0; cy < chunkCountY; cy++) {
-                for (int cz = 0; cz < chunkCountZ; cz++) {
-                    Chunk chunk = chunks[cx][cy][cz];
-                    chunk.buildMesh(assetManager, palette);
-                    node.attachChild(chunk.getNode());
-                }
-            }
+        List<Chunk> all = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks)
+            all.add(chunk);
+        List<ChunkSnapshot> snapshots = new ArrayList<>(all.size());
+        for (Chunk chunk : all)
+            snapshots.add(snapshot(chunk));
+        List<ChunkMeshData> meshes = mesher.meshAll(snapshots, palette, meshingMode);
+        for (int i = 0; i < all.size(); i++) {
+            Chunk chunk = all.get(i);
+            applyMesh(chunk, meshes.get(i));
+            node.attachChild(chunk.getNode());
         }
+        System.out.println("World meshed (" + meshingMode + ", " + AsyncChunkMesher.defaultThreadCount()
+                + " threads) in " + ((System.nanoTime() - start) / 1_000_000.0) + " ms, triangles: "
+                + getTriangleCount());
     }
 
+    /**
+     * Cria os corpos estáticos dos chunks junto aos corpos dinâmicos registados
+     * (ver {@link #updatePhysicsProximity}); os restantes são criados à medida.
+     */
     public void buildPhysics(PhysicsSpace space) {
-        // Construir corpos rígidos estáticos por chunk em vez de um corpo único
+        updatePhysicsProximity(space);
+    }
+
+    /**
+     * Regista um corpo dinâmico (ex: o do BetterCharacterControl do jogador)
+     * em torno do qual os chunks têm física, e que é acordado quando o chão
+     * muda. Retirar com {@link #removeDynamicBody} ao sair do espaço.
+     */
+    public void addDynamicBody(PhysicsRigidBody body) {
+        if (body != null && !dynamicBodies.contains(body))
+            dynamicBodies.add(body);
+    }
+
+    public void removeDynamicBody(PhysicsRigidBody body) {
+        dynamicBodies.remove(body);
+    }
+
+    /**
+     * Mantém corpos estáticos apenas nos chunks a physicsRadius chunks de algum
+     * corpo dinâmico registado ({@link #addDynamicBody}) e
+     * remove-os além de physicsRadius + physicsReleaseMargin. Assim o broadphase
+     * não cresce com o tamanho do mundo. Chamar uma vez por frame.
+     */
+    public void updatePhysicsProximity(PhysicsSpace space) {
         if (space == null)
             return;
-        for (int cx = 0; cx < chunkCountX; cx++) {
-            for (int cy = 0; cy < chunkCountY; cy++) {
-                for (int cz = 0; cz < chunkCountZ; cz++) {
-                    Chunk chunk = chunks[cx][cy][cz];
-                    chunk.updatePhysics(space);
+        anchorCount = 0;
+        for (int i = 0; i < dynamicBodies.size(); i++) {
+            PhysicsRigidBody body = dynamicBodies.get(i);
+            if (body.isStatic())
+                continue;
+            body.getPhysicsLocation(anchorPos);
+            if (anchors.length < (anchorCount + 1) * 3)
+                anchors = Arrays.copyOf(anchors, anchors.length * 2);
+            anchors[anchorCount * 3] = Math.floorDiv((int) Math.floor(anchorPos.x), chunkSize);
+            anchors[anchorCount * 3 + 1] = Math.floorDiv((int) Math.floor(anchorPos.y), chunkSize);
+            anchors[anchorCount * 3 + 2] = Math.floorDiv((int) Math.floor(anchorPos.z), chunkSize);
+            anchorCount++;
+        }
+        // Remover corpos de chunks longe de todos os corpos dinâmicos
+        Iterator<Chunk> it = physicsChunks.iterator();
+        while (it.hasNext()) {
+            Chunk chunk = it.next();
+            if (anchorDistance(chunk) > physicsRadius + physicsReleaseMargin) {
+                chunk.removePhysics(space);
+                it.remove();
+            }
+        }
+        // Criar os que faltam; chunks ainda sem malha recebem o corpo quando ela chegar
+        for (int a = 0; a < anchorCount; a++) {
+            int ax = anchors[a * 3], ay = anchors[a * 3 + 1], az = anchors[a * 3 + 2];
+            for (int dx = -physicsRadius; dx <= physicsRadius; dx++) {
+                for (int dy = -physicsRadius; dy <= physicsRadius; dy++) {
+                    for (int dz = -physicsRadius; dz <= physicsRadius; dz++) {
+                        Chunk chunk = getChunkAt(ax + dx, ay + dy, az + dz);
+                        if (chunk != null && physicsChunks.add(chunk))
+                            updatePhysics(chunk, space);
+                    }
                 }
             }
         }
     }
 
-    public Optional<Hit> pickFirstSolid(Camera cam, float maxDistance) {
-        Vector3f origin = cam.getLocation();
-        Vector3f dir = cam.getDirection().normalize();
-
-        int x = (int) Math.floor(origin.x);
-        int y = (int) Math.floor(origin.y);
-        int z = (int) Math.floor(origin.z);
-
-        float tMaxX, tMaxY, tMaxZ;
-        float tDeltaX, tDeltaY, tDeltaZ;
-        int stepX = dir.x > 0 ? 1 : -1;
-        int stepY = dir.y > 0 ? 1 : -1;
-        int stepZ = dir.z > 0 ? 1 : -1;
-
-        float nextVoxelBoundaryX = x + (stepX > 0 ? 1 : 0);
-        float nextVoxelBoundaryY = y + (stepY > 0 ? 1 : 0);
-        float nextVoxelBoundaryZ = z + (stepZ > 0 ? 1 : 0);
-
-        tMaxX = (dir.x != 0) ? (nextVoxelBoundaryX - origin.x) / dir.x : Float.POSITIVE_INFINITY;
-        tMaxY = (dir.y != 0) ? (nextVoxelBoundaryY - origin.y) / dir.y : Float.POSITIVE_INFINITY;
-        tMaxZ = (dir.z != 0) ? (nextVoxelBoundaryZ - origin.z) / dir.z : Float.POSITIVE_INFINITY;
-
-        tDeltaX = (dir.x != 0) ? stepX / dir.x : Float.POSITIVE_INFINITY;
-        tDeltaY = (dir.y != 0) ? stepY / dir.y : Float.POSITIVE_INFINITY;
-        tDeltaZ = (dir.z != 0) ? stepZ / dir.z : Float.POSITIVE_INFINITY;
-
-        float t = 0f;
-        if (inBounds(x, y, z) && isSolid(x, y, z)) {
-            return Optional.of(new Hit(new Vector3i(x, y, z), new Vector3f(0, 0, 0), 0f));
+    // Menor distância (Chebyshev, em chunks) do chunk a um corpo dinâmico
+    private int anchorDistance(Chunk chunk) {
+        int best = Integer.MAX_VALUE;
+        for (int a = 0; a < anchorCount; a++) {
+            int d = Math.max(Math.abs(chunk.getChunkX() - anchors[a * 3]),
+                    Math.max(Math.abs(chunk.getChunkY() - anchors[a * 3 + 1]),
+                            Math.abs(chunk.getChunkZ() - anchors[a * 3 + 2])));
+            best = Math.min(best, d);
         }
+        return best;
+    }
+
+    public void setPhysicsRadius(int physicsRadius, int releaseMargin) {
+        this.physicsRadius = Math.max(0, physicsRadius);
+        this.physicsReleaseMargin = Math.max(0, releaseMargin);
+    }
 
-        Vector3f lastNormal = new Vector3f(0, 0, 0);
-
-        while (t <= maxDistance) {
-            if (tMaxX < tMaxY) {
-                if (tMaxX < tMaxZ) {
-                    x += stepX;
-                    t = tMaxX;
-                    tMaxX += tDeltaX;
-                    lastNormal.set(-stepX, 0, 0);
-                } else {
-                    z += stepZ;
-                    t = tMaxZ;
-                    tMaxZ += tDeltaZ;
-                    lastNormal.set(0, 0, -stepZ);
+    /** Número de chunks com corpo de física ativo. */
+    public int getPhysicsChunkCount() {
+        return physicsChunks.size();
+    }
+
+    /** Retira do espaço de física os corpos de todos os chunks. */
+    public void removePhysics(PhysicsSpace space) {
+        for (Chunk chunk : physicsChunks)
+            chunk.removePhysics(space);
+        physicsChunks.clear();
+    }
+
+    /** Versão de conveniência de {@link #raycast} a partir da câmara; aloca o resultado. */
+    public Optional<Hit> pickFirstSolid(Camera cam, float maxDistance) {
+        VoxelHit hit = new VoxelHit();
+        if (!raycast(cam.getLocation(), cam.getDirection(), maxDistance, hit))
+            return Optional.empty();
+        return Optional.of(new Hit(new Vector3i(hit.x, hit.y, hit.z),
+                new Vector3f(hit.normalX, hit.normalY, hit.normalZ), hit.distance));
+    }
+
+    public boolean raycast(Vector3f origin, Vector3f direction, float maxDistance, VoxelHit out) {
+        return raycast(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, maxDistance, out);
+    }
+
+    /**
+     * Percorre (DDA) as células atravessadas pelo raio até ao primeiro bloco que
+     * não seja ar, a no máximo maxDistance. O resultado é escrito em {@code out}
+     * (limpo se não houver acerto) e nada é alocado. O raio é primeiro recortado
+     * à caixa do mundo (altura sempre, X/Z só em mundos limitados): começa no
+     * ponto de entrada e termina quando sai, em vez de andar pelo vazio.
+     * A direção não precisa de estar normalizada. Origem, direção ou distância
+     * não finitas (NaN, infinito) não acertam em nada.
+     */
+    public boolean raycast(float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance,
+            VoxelHit out) {
+        out.clear();
+        float len = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        // Sem isto o DDA nunca chega a tExit e o ciclo não termina
+        if (len == 0f || !Float.isFinite(len) || !(maxDistance >= 0f) || !Float.isFinite(maxDistance))
+            return false;
+        if (!Float.isFinite(ox) || !Float.isFinite(oy) || !Float.isFinite(oz))
+            return false;
+        dx /= len;
+        dy /= len;
+        dz /= len;
+
+        // Recorte à caixa do mundo pelo método das slabs
+        float tEnter = 0f, tExit = maxDistance;
+        int enterAxis = -1;
+        if (dy != 0f) {
+            float t1 = -oy / dy, t2 = (sizeY - oy) / dy;
+            if (Math.min(t1, t2) > tEnter) {
+                tEnter = Math.min(t1, t2);
+                enterAxis = 1;
+            }
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        } else if (oy < 0f || oy >= sizeY) {
+            return false;
+        }
+        if (bounded) {
+            if (dx != 0f) {
+                float t1 = -ox / dx, t2 = (sizeX - ox) / dx;
+                if (Math.min(t1, t2) > tEnter) {
+                    tEnter = Math.min(t1, t2);
+                    enterAxis = 0;
                 }
-            } else {
-                if (tMaxY < tMaxZ) {
-                    y += stepY;
-                    t = tMaxY;
-                    tMaxY += tDeltaY;
-                    lastNormal.set(0, -stepY, 0);
-                } else {
-                    z += stepZ;
-                    t = tMaxZ;
-                    tMaxZ += tDeltaZ;
-                    lastNormal.set(0, 0, -stepZ);
+                tExit = Math.min(tExit, Math.max(t1, t2));
+            } else if (ox < 0f || ox >= sizeX) {
+                return false;
+            }
+            if (dz != 0f) {
+                float t1 = -oz / dz, t2 = (sizeZ - oz) / dz;
+                if (Math.min(t1, t2) > tEnter) {
+                    tEnter = Math.min(t1, t2);
+                    enterAxis = 2;
                 }
+                tExit = Math.min(tExit, Math.max(t1, t2));
+            } else if (oz < 0f || oz >= sizeZ) {
+                return false;
             }
+        }
+        if (tEnter > tExit)
+            return false;
 
-            if (!inBounds(x, y, z)) {
-                if (t > maxDistance)
-                    break;
-                continue;
-            }
+        float sx = ox + dx * tEnter, sy = oy + dy * tEnter, sz = oz + dz * tEnter;
+        int x = (int) Math.floor(sx), y = (int) Math.floor(sy), z = (int) Math.floor(sz);
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1, stepZ = dz > 0 ? 1 : -1;
+        float tDeltaX = dx != 0f ? Math.abs(1f / dx) : Float.POSITIVE_INFINITY;
+        float tDeltaY = dy != 0f ? Math.abs(1f / dy) : Float.POSITIVE_INFINITY;
+        float tDeltaZ = dz != 0f ? Math.abs(1f / dz) : Float.POSITIVE_INFINITY;
+        float tMaxX = dx != 0f ? tEnter + (stepX > 0 ? x + 1 - sx : sx - x) * tDeltaX : Float.POSITIVE_INFINITY;
+        float tMaxY = dy != 0f ? tEnter + (stepY > 0 ? y + 1 - sy : sy - y) * tDeltaY : Float.POSITIVE_INFINITY;
+        float tMaxZ = dz != 0f ? tEnter + (stepZ > 0 ? z + 1 - sz : sz - z) * tDeltaZ : Float.POSITIVE_INFINITY;
+
+        // Normal da face de entrada; a zero se a origem já estiver dentro do mundo
+        int nx = enterAxis == 0 ? -stepX : 0;
+        int ny = enterAxis == 1 ? -stepY : 0;
+        int nz = enterAxis == 2 ? -stepZ : 0;
+        float t = tEnter;
+        while (true) {
             if (isSolid(x, y, z)) {
-                return Optional.of(new Hit(new Vector3i(x, y, z), lastNormal.clone(), t));
+                out.set(x, y, z, nx, ny, nz, t);
+                return true;
             }
+            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+                x += stepX;
+                t = tMaxX;
+                tMaxX += tDeltaX;
+                nx = -stepX;
+                ny = 0;
+                nz = 0;
+            } else if (tMaxY < tMaxZ) {
+                y += stepY;
+                t = tMaxY;
+                tMaxY += tDeltaY;
+                nx = 0;
+                ny = -stepY;
+                nz = 0;
+            } else {
+                z += stepZ;
+                t = tMaxZ;
+                tMaxZ += tDeltaZ;
+                nx = 0;
+                ny = 0;
+                nz = -stepZ;
+            }
+            if (t > tExit)
+                return false;
         }
-        return Optional.empty();
     }
 
+    /**
+     * Lança {@code count} raios de uma vez. {@code rays} tem 6 floats por raio
+     * (origem x,y,z seguida da direção x,y,z) e o resultado do raio i fica em
+     * {@code out[i]}. Devolve quantos acertaram.
+     */
+    public int raycastBatch(float[] rays, int count, float maxDistance, VoxelHit[] out) {
+        int hits = 0;
+        for (int i = 0, o = 0; i < count; i++, o += 6) {
+            if (raycast(rays[o], rays[o + 1], rays[o + 2], rays[o + 3], rays[o + 4], rays[o + 5], maxDistance,
+                    out[i]))
+                hits++;
+        }
+        return hits;
+    }
+
+    // Qualquer bloco que não seja ar (folhas incluídas) conta para o picking
     private boolean isSolid(int x, int y, int z) {
-        if (!inBounds(x, y, z))
-            return false;
-        return palette.get(getBlock(x, y, z)) instanceof jogo.voxel.blocks.AirBlockType == false;
+        return getBlock(x, y, z) != VoxelPalette.AIR_ID;
     }
 
     private boolean inBounds(int x, int y, int z) {
-        return x >= 0 && y >= 0 && z >= 0 && x < sizeX && y < sizeY && z < sizeZ;
+        if (y < 0 || y >= sizeY)
+            return false;
+        return !bounded || (x >= 0 && z >= 0 && x < sizeX && z < sizeZ);
     }
 
     public void setLit(boolean lit) {
         if (this.lit == lit)
             return;
         this.lit = lit;
-        for (var e : geoms.entrySet()) {
-            Geometry g = e.getValue();
-            var oldMat = g.getMaterial();
-            com.jme3.texture.Texture tex = oldMat.getTextureParam("DiffuseMap") != null
-                    ? oldMat.getTextureParam("DiffuseMap").getTextureValue()
-                    : (oldMat.getTextureParam("ColorMap") != null ? oldMat.getTextureParam("ColorMap").getTextureValue()
-                            : null);
-            Material newMat;
-            if (this.lit) {
-                newMat = new Material(assetManager, "Common/MatDefs/Light/Lighting.j3md");
-                if (tex != null)
-                    newMat.setTexture("DiffuseMap", tex);
-                newMat.setBoolean("UseMaterialColors", true);
-                newMat.setColor("Diffuse", ColorRGBA.White);
-                newMat.setColor("Specular", ColorRGBA.White.mult(0.08f));
-                newMat.setFloat("Shininess", 16f);
-            } else {
-                newMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                if (tex != null)
-                    newMat.setTexture("ColorMap", tex);
-            }
-            applyRenderFlags(newMat);
-            g.setMaterial(newMat);
-        }
+        blockMaterial.setBoolean("UseLighting", lit);
     }
 
     public void setWireframe(boolean wireframe) {
         if (this.wireframe == wireframe)
             return;
         this.wireframe = wireframe;
-
-        for (Geometry g : geoms.values())
-            applyRenderFlags(g.getMaterial());
+        applyRenderFlags(blockMaterial);
     }
 
     public void setCulling(boolean culling) {
         if (this.culling == culling)
             return;
         this.culling = culling;
-        for (Geometry g : geoms.values())
-            applyRenderFlags(g.getMaterial());
+        applyRenderFlags(blockMaterial);
     }
 
     public boolean isLit() {
@@ -404,6 +912,24 @@ public class VoxelWorld {
         return culling;
     }
 
+    /** Liga o diagnóstico extra na consola (desligado por omissão). */
+    public void setDebugLogging(boolean debugLogging) {
+        this.debugLogging = debugLogging;
+    }
+
+    public boolean isDebugLogging() {
+        return debugLogging;
+    }
+
+    /**
+     * Liga uma linha na consola por cada malha de chunk aplicada e por cada
+     * corpo de colisão de chunk criado. Desligado por omissão, como as
+     * estatísticas de {@link #setDebugLogging}.
+     */
+    public void setChunkLogging(boolean chunkLogging) {
+        this.chunkLogging = chunkLogging;
+    }
+
     public void toggleRenderDebug() {
         System.out.println("Toggled render debug");
         setLit(!isLit());
@@ -419,42 +945,127 @@ public class VoxelWorld {
         return palette;
     }
 
+    public MeshingMode getMeshingMode() {
+        return meshingMode;
+    }
+
+    /**
+     * Troca o modo de meshing e marca todos os chunks como sujos; a reconstrução
+     * é feita aos poucos por {@link #processDirtyChunks}.
+     */
+    public void setMeshingMode(MeshingMode mode) {
+        if (mode == null || this.meshingMode == mode)
+            return;
+        this.meshingMode = mode;
+        for (Chunk chunk : chunks)
+            markChunkDirty(chunk);
+    }
+
+    /** Total de triângulos das malhas atuais de todos os chunks. */
+    public int getTriangleCount() {
+        int total = 0;
+        for (Chunk chunk : chunks)
+            total += chunk.getTriangleCount();
+        return total;
+    }
+
+    /**
+     * Ativa a reconstrução assíncrona: o meshing corre no pool e o resultado é
+     * aplicado na thread de render por {@link #processDirtyChunks}.
+     */
+    public void setApplication(Application app) {
+        this.app = app;
+    }
+
+    /** Liberta as threads de meshing. */
+    public void shutdown() {
+        mesher.shutdown();
+    }
+
+    /** Número de chunks à espera de reconstrução. */
+    public int getDirtyChunkCount() {
+        return dirtyQueue.size();
+    }
+
     /**
-     * Reconstrói malhas apenas para chunks sujos. Chame isto uma vez por frame no
-     * loop de update.
+     * Reconstrói chunks sujos dentro de um orçamento de tempo por frame. Primeiro
+     * aplica as malhas já prontas dos workers e depois agenda (ou, sem
+     * Application, constrói) os chunks da fila, dos mais próximos e visíveis
+     * para os restantes. O que não couber no orçamento fica para o frame seguinte,
+     * por isso edições em massa não causam picos. Chamar uma vez por frame.
+     */
+    public void processDirtyChunks(Camera cam, float budgetMs, PhysicsSpace physicsSpace) {
+        long deadline = System.nanoTime() + (long) (budgetMs * 1_000_000L);
+        if (app != null)
+            mesher.applyCompleted(deadline);
+        dirtyQueue.drain(cam, deadline, chunk -> rebuildChunk(chunk, physicsSpace));
+        wakeDynamicBodiesIfNeeded(physicsSpace);
+    }
+
+    /**
+     * Reconstrói de uma vez todos os chunks da fila, sem orçamento nem prioridade
+     * (ex: simulação sem render). Com Application apenas agenda o meshing.
      */
     public void rebuildDirtyChunks(PhysicsSpace physicsSpace) {
-        int rebuilt = 0;
-        for (int cx = 0; cx < chunkCountX; cx++) {
-            for (int cy = 0; cy < chunkCountY; cy++) {
-                for (int cz = 0; cz < chunkCountZ; cz++) {
-                    Chunk chunk = chunks[cx][cy][cz];
-                    if (chunk.isDirty()) {
-                        System.out.println("Rebuilding chunk: " + cx + "," + cy + "," + cz);
-                        chunk.buildMesh(assetManager, palette);
-                        chunk.updatePhysics(physicsSpace);
-                        chunk.clearDirty();
-                        rebuilt++;
-                    }
-                }
-            }
-        }
-        if (rebuilt > 0)
-            System.out.println("Chunks rebuilt this frame: " + rebuilt);
-        if (rebuilt > 0 && physicsSpace != null) {
-            physicsSpace.update(0); // Forçar espaço de física a processar alterações
-            System.out.println("Physics space forced update after chunk physics changes.");
+        dirtyQueue.drain(null, Long.MAX_VALUE, chunk -> rebuildChunk(chunk, physicsSpace));
+        wakeDynamicBodiesIfNeeded(physicsSpace);
+    }
+
+    private void rebuildChunk(Chunk chunk, PhysicsSpace physicsSpace) {
+        // Já reconstruído ou descarregado desde que entrou na fila
+        if (!chunk.isDirty() || getChunkAt(chunk.getChunkX(), chunk.getChunkY(), chunk.getChunkZ()) != chunk)
+            return;
+        chunk.clearDirty();
+        if (app != null)
+            mesher.submit(chunk, snapshot(chunk), palette, meshingMode,
+                    data -> applyChunkMesh(chunk, data, physicsSpace));
+        else
+            applyChunkMesh(chunk, ChunkMesher.mesh(snapshot(chunk), palette, meshingMode), physicsSpace);
+    }
+
+    private void applyChunkMesh(Chunk chunk, ChunkMeshData data, PhysicsSpace physicsSpace) {
+        applyMesh(chunk, data);
+        if (!physicsChunks.contains(chunk))
+            return; // longe de corpos dinâmicos: sem física a atualizar
+        updatePhysics(chunk, physicsSpace);
+        physicsChanged = true;
+    }
+
+    private void updatePhysics(Chunk chunk, PhysicsSpace physicsSpace) {
+        chunk.updatePhysics(physicsSpace);
+        if (chunkLogging && physicsSpace != null && chunk.getCollisionBoxCount() > 0)
+            System.out.println("Added chunk collision [" + chunk.getChunkX() + "," + chunk.getChunkY() + ","
+                    + chunk.getChunkZ() + "]: " + chunk.getCollisionBoxCount() + " boxes");
+    }
+
+    private void applyMesh(Chunk chunk, ChunkMeshData data) {
+        chunk.applyMesh(blockMaterial, data);
+        if (chunkLogging)
+            System.out.println("Chunk [" + chunk.getChunkX() + "," + chunk.getChunkY() + "," + chunk.getChunkZ()
+                    + "] mesh built (" + data.getMode() + ") in " + data.getBuildMillis() + " ms, triangles: "
+                    + data.getTriangleCount());
+    }
+
+    // Corpos dinâmicos parados (a dormir) não reparam que o chão mudou: acordá-los
+    private void wakeDynamicBodiesIfNeeded(PhysicsSpace physicsSpace) {
+        if (!physicsChanged || physicsSpace == null)
+            return;
+        physicsChanged = false;
+        for (int i = 0; i < dynamicBodies.size(); i++) {
+            PhysicsRigidBody body = dynamicBodies.get(i);
+            if (!body.isStatic())
+                body.activate();
         }
     }
 
     /**
-     * Limpa a flag de sujo em todos os chunks. Chame após buildMeshes() inicial.
+     * Limpa a flag de sujo em todos os chunks e esvazia a fila. Chame após
+     * buildMeshes() inicial.
      */
     public void clearAllDirtyFlags() {
-        for (int cx = 0; cx < chunkCountX; cx++)
-            for (int cy = 0; cy < chunkCountY; cy++)
-                for (int cz = 0; cz < chunkCountZ; cz++)
-                    chunks[cx][cy][cz].clearDirty();
+        for (Chunk chunk : chunks)
+            chunk.clearDirty();
+        dirtyQueue.clear();
     }
 
     // int3 simples
@@ -1,7 +1,5 @@
 package jogo.voxel.blocks;
 
-import com.jme3.asset.AssetManager;
-import com.jme3.material.Material;
 import jogo.voxel.VoxelBlockType;
 
 public class AirBlockType extends VoxelBlockType {
@@ -13,10 +11,4 @@ public class AirBlockType extends VoxelBlockType {
     public boolean isSolid() {
         return false;
     }
-
-    @Override
-    public Material getMaterial(AssetManager assetManager) {
-        // Air is invisible, so return null (or could return a transparent material if needed)
-        return null;
-    }
 }
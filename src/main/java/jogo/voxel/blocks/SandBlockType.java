@@ -1,10 +1,5 @@
 package jogo.voxel.blocks;
 
-import com.jme3.asset.AssetManager;
-import com.jme3.material.Material;
-import com.jme3.math.ColorRGBA;
-import com.jme3.texture.Texture2D;
-import com.jme3.texture.Texture;
 import jogo.voxel.VoxelBlockType;
 
 public class SandBlockType extends VoxelBlockType {
@@ -18,18 +13,7 @@ public class SandBlockType extends VoxelBlockType {
     }
 
     @Override
-    public Material getMaterial(AssetManager assetManager) {
-        Texture2D tex = (Texture2D) assetManager.loadTexture("textures/blocks/sand.png");
-        tex.setMagFilter(Texture.MagFilter.Nearest);
-        tex.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
-        tex.setAnisotropicFilter(1);
-        tex.setWrap(Texture.WrapMode.Repeat);
-        Material m = new Material(assetManager, "Common/MatDefs/Light/Lighting.j3md");
-        m.setTexture("DiffuseMap", tex);
-        m.setBoolean("UseMaterialColors", true);
-        m.setColor("Diffuse", ColorRGBA.White);
-        m.setColor("Specular", ColorRGBA.White.mult(0.0f));
-        m.setFloat("Shininess", 2f);
-        return m;
+    public String getTexturePath() {
+        return "textures/blocks/sand.png";
     }
 }